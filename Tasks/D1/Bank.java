@@ -1,50 +1,361 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
- * Bank-Verwaltung (In-Memory).
- * - Hält Konten in einer Map (komplexer Datentyp).
- * - Erzeugt IBANs und Kundennummern.
+ * Bank-Verwaltung (In-Memory, optional mit Journal auf der Platte).
+ * - Hält Konten in einer nach IBAN sortierten Map (komplexer Datentyp).
+ * - Konten lassen sich seitenweise lesen und als Text/CSV/JSON in einen Stream exportieren.
+ * - Sekundärindizes: Kundennummer → Konten und sortierter Namensindex für Präfixsuche;
+ *   beide werden beim Eröffnen (und beim Laden) eines Kontos nachgeführt.
+ * - Erzeugt IBANs und Kundennummern (über NummernGenerator, mit Prüfziffern).
  * - Bietet gekapselte Zugriffsmethoden.
+ * - Darf von mehreren Threads gleichzeitig verwendet werden (ConcurrentMap, blockweise Nummernvergabe).
+ * - Bank.oeffnen(...) lädt Snapshot + Journal aus einem Verzeichnis; danach wird jede Buchung
+ *   ins Journal geschrieben und übersteht einen Absturz.
+ * - Zinsen und Gebühren für alle Konten: zinslauf(regel), parallel und mit Checkpoint.
+ * - Transfers mit Idempotenz-Schlüssel werden bei Wiederholung nicht doppelt gebucht.
+ * - Optionales Regelwerk (Debitregeln, z.B. Limiten) für alle Abhebungen und Transfers: setRegelwerk(...).
+ * - Optionaler Kontoverlauf (für Kontoauszüge) mit begrenzter Anzahl Buchungen pro Konto: setVerlauf(...).
  */
-public class Bank {
+public class Bank implements AutoCloseable {
+    private static final String SNAPSHOT_DATEI = "bank.snapshot";
+    private static final String JOURNAL_DATEI = "bank.journal";
+
     private final String name;
-    private final Map<String, Konto> konten = new HashMap<>();
-    private int laufendeKundenNummer = 1;
-    private int laufendeIbanNummer = 1;
+    private final ConcurrentNavigableMap<String, Konto> konten = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Konto[]> kontenNachKunde = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, Kunde> kundenNachName = new ConcurrentSkipListMap<>(); // "name\0knr"
+    private Konto[] register = new Konto[1024]; // Konten nach Index (Gegenkonto im Verlauf), nur synchronized
+    private int registerGroesse;
+    private Regelwerk regelwerk; // null = keine Limiten, nur synchronized
+    private int verlaufMax;      // 0 = kein Kontoverlauf, nur synchronized
+    private final NummernGenerator kundenNummern = new NummernGenerator(1);
+    private final NummernGenerator kontoNummern = new NummernGenerator(1);
+    private Path verzeichnis;   // null = rein im Speicher
+    private long generation;
+    private Journal journal;
+    private final IdempotenzCache transferSchluessel = new IdempotenzCache(100_000, 24 * 60 * 60 * 1000L);
 
     public Bank(String name) {
         if (name == null || name.isBlank()) throw new IllegalArgumentException("Name darf nicht leer sein.");
         this.name = name;
     }
 
+    /**
+     * Öffnet eine persistente Bank im gegebenen Verzeichnis.
+     * Ablauf: Snapshot laden → passendes Journal nachspielen → neuen Snapshot schreiben →
+     * leeres Journal der nächsten Generation anlegen. Stürzt das Programm zwischen den letzten
+     * beiden Schritten ab, passt die Generation des alten Journals nicht mehr und es wird ignoriert.
+     * Gab es nichts nachzuspielen (sauber geschlossen), bleibt der Snapshot, wie er ist, und nur
+     * das Journal wird neu angelegt.
+     */
+    public static Bank oeffnen(String name, Path verzeichnis) throws IOException {
+        Files.createDirectories(verzeichnis);
+        Bank bank = new Bank(name);
+        long generation = bank.ladeSnapshotDatei(verzeichnis.resolve(SNAPSHOT_DATEI));
+        long nachgespielt = Journal.nachspielen(verzeichnis.resolve(JOURNAL_DATEI), generation, new Journal.Leser() {
+            @Override
+            public void eroeffnung(String iban, String knr, String kundenName, long startSaldo) {
+                Konto[] vorhanden = bank.kontenNachKunde.get(knr);
+                Kunde kunde = vorhanden != null ? vorhanden[0].getInhaber() : new Kunde(kundenName, knr);
+                bank.wiederherstellen(iban, kunde, startSaldo);
+            }
+
+            @Override
+            public void einzahlung(String iban, long betrag) {
+                bank.konten.get(iban).wiederherstellen(betrag);
+            }
+
+            @Override
+            public void abhebung(String iban, long betrag) {
+                bank.konten.get(iban).wiederherstellen(-betrag);
+            }
+
+            @Override
+            public void transfer(String quellIban, String zielIban, long betrag) {
+                bank.konten.get(quellIban).wiederherstellen(-betrag);
+                bank.konten.get(zielIban).wiederherstellen(betrag);
+            }
+
+            @Override
+            public void sammelbuchung(String[] ibans, long[] deltas) {
+                for (int i = 0; i < ibans.length; i++) bank.konten.get(ibans[i]).wiederherstellen(deltas[i]);
+            }
+        });
+        bank.verzeichnis = verzeichnis;
+        bank.generation = generation;
+        if (nachgespielt > 0) {
+            bank.verdichten();
+        } else {
+            // nichts nachgespielt (z.B. nach close()): der Snapshot ist aktuell, nur ein leeres Journal anlegen
+            bank.neuesJournal();
+        }
+        return bank;
+    }
+
+    /**
+     * Lädt eine reine Speicher-Bank (ohne Journal) aus einer Snapshot-Datei, z.B. für Tests oder Demo-Daten.
+     */
+    public static Bank ladeSnapshot(String name, Path datei) throws IOException {
+        if (!Files.exists(datei)) throw new IllegalArgumentException("Snapshot " + datei + " existiert nicht.");
+        Bank bank = new Bank(name);
+        bank.generation = bank.ladeSnapshotDatei(datei);
+        return bank;
+    }
+
+    /**
+     * Schreibt alle Konten mit Inhaber und Saldo als kompakten Snapshot (siehe Snapshot).
+     * Für einen stimmigen Stand sollten währenddessen keine Buchungen laufen.
+     */
+    public void speichereSnapshot(Path datei) throws IOException {
+        Snapshot.schreiben(datei, generation, konten.values());
+    }
+
     public String getName() {
         return name;
     }
 
     public Kunde neuerKunde(String kundenName) {
-        String knr = "K%04d".formatted(laufendeKundenNummer++);
-        return new Kunde(kundenName, knr);
+        return new Kunde(kundenName, NummernGenerator.kundennummer(kundenNummern.naechste()));
     }
 
     public Konto kontoEroeffnen(Kunde inhaber, double startSaldo) {
+        return kontoEroeffnenRappen(inhaber, Betrag.inRappen(startSaldo));
+    }
+
+    public Konto kontoEroeffnenRappen(Kunde inhaber, long startSaldoRappen) {
         String iban = generiereIban();
-        if (konten.containsKey(iban)) throw new IllegalStateException("IBAN bereits vergeben (sollte nicht passieren).");
-        Konto k = new Konto(iban, inhaber, startSaldo);
-        konten.put(iban, k);
+        Konto k = Konto.mitRappen(iban, inhaber, startSaldoRappen);
+        registriere(k);
+        Journal j = journal;
+        long sequenz = 0;
+        if (j != null) {
+            // vor dem Sichtbarwerden ins Journal, damit Buchungen auf das Konto nie vor der Eröffnung stehen
+            k.journal = j;
+            sequenz = j.eroeffnung(iban, inhaber.getKundennummer(), inhaber.getName(), startSaldoRappen);
+        }
+        if (konten.putIfAbsent(iban, k) != null) throw new IllegalStateException("IBAN bereits vergeben (sollte nicht passieren).");
+        indexiere(k);
+        if (j != null) j.warteAufCommit(sequenz);
         return k;
     }
 
+    /**
+     * Führt viele Transfers als eine atomare Sammelbuchung aus (z.B. Lohnlauf).
+     * - Alle Posten werden zuerst pro Konto saldiert (gegenläufige Posten heben sich auf),
+     *   erst danach werden Saldi angefasst.
+     * - Die Deckung wird für den ganzen Auftrag geprüft: reicht sie auf einem Konto nicht,
+     *   wird nichts gebucht (alles oder nichts).
+     * - Die Debitregeln belasteter Konten gelten für deren Nettobelastung; verletzt sie eine Regel,
+     *   wird ebenfalls nichts gebucht.
+     * - Alle beteiligten Konten werden einmal in IBAN-Reihenfolge gesperrt; mit Journal entsteht
+     *   genau ein Datensatz und ein Warten auf fsync.
+     *
+     * @return Anzahl der tatsächlich veränderten Konten (nach dem Saldieren)
+     */
+    public int sammelTransfer(List<Transferauftrag> auftraege) {
+        long start = BankMetriken.start();
+        boolean ok = false;
+        try {
+            int n = bucheSammelTransfer(auftraege);
+            ok = true;
+            return n;
+        } finally {
+            BankMetriken.erfasse(BankMetriken.Operation.SAMMELTRANSFER, start, ok);
+        }
+    }
+
+    private int bucheSammelTransfer(List<Transferauftrag> auftraege) {
+        if (auftraege == null) throw new IllegalArgumentException("Aufträge dürfen nicht null sein.");
+        Map<Konto, long[]> netto = new HashMap<>();
+        for (Transferauftrag a : auftraege) {
+            Konto quelle = kontoOderFehler(a.getQuellIban());
+            Konto ziel = kontoOderFehler(a.getZielIban());
+            long betrag = a.getBetragRappen();
+            long[] q = netto.computeIfAbsent(quelle, k -> new long[1]);
+            q[0] = Math.subtractExact(q[0], betrag);
+            long[] z = netto.computeIfAbsent(ziel, k -> new long[1]);
+            z[0] = Math.addExact(z[0], betrag);
+        }
+
+        // nur Konten mit Nettoveränderung ≠ 0, sortiert nach IBAN (globale Sperrreihenfolge)
+        Konto[] beteiligt = new Konto[netto.size()];
+        int n = 0;
+        for (Map.Entry<Konto, long[]> e : netto.entrySet()) {
+            if (e.getValue()[0] != 0) beteiligt[n++] = e.getKey();
+        }
+        Arrays.sort(beteiligt, 0, n, Comparator.comparing(Konto::getIban));
+        long[] deltas = new long[n];
+        for (int i = 0; i < n; i++) deltas[i] = netto.get(beteiligt[i])[0];
+        if (n == 0) return 0;
+
+        Journal j = journal;
+        long sequenz = 0;
+        int gesperrt = 0;
+        try {
+            for (; gesperrt < n; gesperrt++) beteiligt[gesperrt].sperren();
+            for (int i = 0; i < n; i++) {
+                long neu = Math.addExact(beteiligt[i].saldoGesperrt(), deltas[i]);
+                if (neu < 0) {
+                    BankMetriken.ungedeckt(BankMetriken.Operation.SAMMELTRANSFER);
+                    throw new IllegalStateException("Nicht genügend Deckung auf " + beteiligt[i].getIban()
+                            + " – Sammelauftrag wurde nicht ausgeführt.");
+                }
+            }
+            // Debitregeln wie bei Einzelbuchungen, auf die Nettobelastung: sonst liessen sich Limiten umgehen
+            long jetzt = System.currentTimeMillis();
+            for (int i = 0; i < n; i++) {
+                Debitverlauf regeln = beteiligt[i].debitregeln;
+                if (deltas[i] < 0 && regeln != null) regeln.pruefe(jetzt, -deltas[i]);
+            }
+            if (j != null) sequenz = j.sammelbuchung(beteiligt, deltas, n);
+            for (int i = 0; i < n; i++) {
+                beteiligt[i].bucheGesperrt(deltas[i]);
+                Debitverlauf regeln = beteiligt[i].debitregeln;
+                if (deltas[i] < 0 && regeln != null) regeln.erfasse(jetzt, -deltas[i]);
+            }
+        } finally {
+            for (int i = gesperrt - 1; i >= 0; i--) beteiligt[i].entsperren();
+        }
+        if (j != null) j.warteAufCommit(sequenz);
+        return n;
+    }
+
+    /**
+     * Transfer mit Idempotenz-Schlüssel (z.B. vom Client pro Auftrag erzeugte UUID).
+     * - Wird derselbe Auftrag mit demselben Schlüssel wiederholt (Timeout, Netzwerkfehler), wird er nicht
+     *   nochmals gebucht; die Saldi bleiben unverändert.
+     * - Derselbe Schlüssel mit anderen Konten oder anderem Betrag → IllegalArgumentException.
+     * - Scheiterte der erste Versuch, nachdem evtl. schon gebucht wurde (z.B. Journal-Fehler), wird jede
+     *   Wiederholung mit einer IllegalStateException abgewiesen statt nochmals gebucht.
+     * - Die Schlüssel werden höchstens 24 Stunden bzw. für die letzten 100'000 Transfers gemerkt
+     *   und nur im Speicher (siehe IdempotenzCache).
+     *
+     * @return true wenn gebucht, false wenn der Schlüssel schon verwendet wurde (Wiederholung)
+     */
+    public boolean transfer(String idempotenzSchluessel, String quellIban, String zielIban, long betragRappen,
+                            String referenz) {
+        Konto quelle = kontoOderFehler(quellIban);
+        Konto ziel = kontoOderFehler(zielIban);
+        String fingerabdruck = quellIban + '|' + zielIban + '|' + betragRappen;
+        return transferSchluessel.einmal(idempotenzSchluessel, fingerabdruck,
+                () -> quelle.transferRappen(ziel, betragRappen, referenz));
+    }
+
+    /** Anzahl aktuell gemerkter Idempotenz-Schlüssel (bleibt begrenzt). */
+    int anzahlIdempotenzSchluessel() {
+        return transferSchluessel.groesse();
+    }
+
+    /**
+     * Zinslauf über alle Konten mit der gegebenen Regel (z.B. Monatsabschluss), siehe Zinslauf.
+     * Beispiel: bank.zinslauf(Zinsregel.zins(10).dann(Zinsregel.gebuehr(500, 1000_00))).ausfuehren(pool)
+     */
+    public Zinslauf zinslauf(Zinsregel regel) {
+        return new Zinslauf(this, regel);
+    }
+
+    /** Aktuelles Journal (null = nicht persistent), für Buchungen ausserhalb der Bank (Zinslauf). */
+    Journal journal() {
+        return journal;
+    }
+
     public Optional<Konto> findeKonto(String iban) {
         return Optional.ofNullable(konten.get(iban));
     }
 
+    /** Alle Konten eines Kunden in Eröffnungsreihenfolge (leer, wenn keine). */
+    public List<Konto> kontenVonKunde(String kundennummer) {
+        Konto[] k = kontenNachKunde.get(kundennummer);
+        return k == null ? List.of() : List.of(k);
+    }
+
+    /**
+     * Sucht Kunden, deren Name mit {@code praefix} beginnt (ohne Gross-/Kleinschreibung),
+     * alphabetisch sortiert, höchstens {@code max} Treffer. Aufwand O(log n + Treffer).
+     */
+    public List<Kunde> sucheKunden(String praefix, int max) {
+        if (praefix == null) throw new IllegalArgumentException("Präfix darf nicht null sein.");
+        if (max <= 0) throw new IllegalArgumentException("Max muss > 0 sein.");
+        String von = normalisiere(praefix);
+        List<Kunde> treffer = new ArrayList<>(Math.min(max, 64));
+        for (Kunde k : kundenNachName.subMap(von, true, von + Character.MAX_VALUE, false).values()) {
+            if (treffer.size() == max) break;
+            treffer.add(k);
+        }
+        return treffer;
+    }
+
+    /** Konto zu einem Index aus dem Kontoverlauf (siehe Kontoauszug.getGegenkonto), oder null. */
+    public synchronized Konto kontoMitIndex(int index) {
+        return index >= 0 && index < registerGroesse ? register[index] : null;
+    }
+
+    /** Schreibt den Kontoauszug eines Kontos für einen Zeitbereich (Millisekunden seit 1970). */
+    public void schreibeAuszug(String iban, long vonMillis, long bisMillis, Appendable out) throws IOException {
+        kontoOderFehler(iban).auszug(vonMillis, bisMillis).schreibe(out, this);
+    }
+
+    /** Alle Konten in IBAN-Reihenfolge (Live-Ansicht, nicht kopiert). */
     public Collection<Konto> alleKonten() {
         return Collections.unmodifiableCollection(konten.values());
     }
 
+    /**
+     * Liefert eine Seite von höchstens {@code anzahl} Konten in IBAN-Reihenfolge, beginnend nach
+     * {@code nachIban} (Cursor; null = von vorne). Die IBAN des letzten Kontos ist der Cursor
+     * für die nächste Seite; eine leere Liste bedeutet Ende.
+     */
+    public List<Konto> kontenSeite(String nachIban, int anzahl) {
+        if (anzahl <= 0) throw new IllegalArgumentException("Anzahl muss > 0 sein.");
+        Collection<Konto> rest = nachIban == null ? konten.values() : konten.tailMap(nachIban, false).values();
+        List<Konto> seite = new ArrayList<>(Math.min(anzahl, 1024));
+        for (Konto k : rest) {
+            if (seite.size() == anzahl) break;
+            seite.add(k);
+        }
+        return seite;
+    }
+
+    /**
+     * Exportiert alle Konten in IBAN-Reihenfolge in den Writer, ohne sie vorher zu sammeln.
+     * Konten, die während des Exports eröffnet werden, können fehlen oder schon enthalten sein.
+     *
+     * @return Anzahl exportierter Konten
+     */
+    public long exportiere(Writer out, KontoExport.Format format) throws IOException {
+        KontoExport export = new KontoExport(out, format);
+        export.beginne();
+        for (Konto k : konten.values()) export.schreibe(k);
+        export.beende();
+        return export.getAnzahl();
+    }
+
+    /** Wie exportiere(Writer, ...), aber als UTF-8 in einen gepufferten OutputStream (wird nicht geschlossen). */
+    public long exportiere(OutputStream out, KontoExport.Format format) throws IOException {
+        return exportiere(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16), format);
+    }
+
+    private Konto kontoOderFehler(String iban) {
+        Konto k = konten.get(iban);
+        if (k == null) throw new IllegalArgumentException("Kein Konto mit IBAN " + iban + " gefunden.");
+        return k;
+    }
+
     private String generiereIban() {
-        // sehr vereinfachte pseudo-IBAN
-        return "CH93-0000-0000-%04d".formatted(laufendeIbanNummer++);
+        return NummernGenerator.iban(kontoNummern.naechste());
     }
 
     public void druckeUebersicht() {
@@ -53,8 +364,208 @@ public class Bank {
             System.out.println("(keine Konten vorhanden)");
             return;
         }
-        for (Konto k : konten.values()) {
-            System.out.println(k);
+        try {
+            exportiere(System.out, KontoExport.Format.TEXT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
+
+    /**
+     * Schliesst das Journal und schreibt einen frischen Snapshot, damit der nächste Start nichts
+     * nachspielen muss. Danach sind keine Buchungen mehr möglich. Ohne Verzeichnis passiert nichts.
+     */
+    @Override
+    public void close() throws IOException {
+        if (journal == null) return;
+        journal.close();
+        journal = null;
+        Snapshot.schreiben(verzeichnis.resolve(SNAPSHOT_DATEI), ++generation, konten.values());
+    }
+
+    /** Legt ein Konto beim Laden an, ohne Journal-Eintrag, und zieht die Zähler nach. */
+    private void wiederherstellen(String iban, Kunde inhaber, long saldo) {
+        Konto k = Konto.mitRappen(iban, inhaber, saldo);
+        registriere(k);
+        konten.put(iban, k);
+        indexiere(k);
+        kontoNummern.mindestens(NummernGenerator.kontonummerAus(iban) + 1);
+        kundenNummern.mindestens(NummernGenerator.kundenNummerAus(inhaber.getKundennummer()) + 1);
+    }
+
+    private void indexiere(Konto k) {
+        Kunde kunde = k.getInhaber();
+        if (indexiereKunde(k)) kundenNachName.put(namensSchluessel(kunde), kunde);
+    }
+
+    /** Trägt das Konto unter der Kundennummer ein; true, wenn es das erste Konto dieses Kunden ist. */
+    private boolean indexiereKunde(Konto k) {
+        Konto[] neu = kontenNachKunde.merge(k.getInhaber().getKundennummer(), new Konto[] { k }, (alt, eins) -> {
+            Konto[] mehr = Arrays.copyOf(alt, alt.length + 1);
+            mehr[alt.length] = eins[0];
+            return mehr;
+        });
+        return neu.length == 1;
+    }
+
+    private static String namensSchluessel(Kunde kunde) {
+        return normalisiere(kunde.getName()) + '\0' + kunde.getKundennummer();
+    }
+
+    /**
+     * Lädt einen Snapshot in die (noch leere) Bank. Die Konten pro Kunde werden nicht Konto für Konto
+     * per Hash-Merge gesammelt, sondern über den Kundenindex des Snapshots in einem Durchgang
+     * gezählt und eingefüllt; jede Map erhält danach jeden Eintrag mit genau einem put, die sortierten
+     * Maps in aufsteigender Reihenfolge (die Konten stehen im Snapshot bereits nach IBAN sortiert).
+     */
+    private long ladeSnapshotDatei(Path datei) throws IOException {
+        Ladung ladung = new Ladung();
+        long gen = Snapshot.lesen(datei, ladung);
+        int n = ladung.anzahl;
+        if (n == 0) return gen;
+
+        Konto[] geladen = Arrays.copyOf(ladung.konten, n);
+        int[] kundeVon = ladung.kundeVon;
+        long maxKonto = 0;
+        for (Konto k : geladen) {
+            if (konten.putIfAbsent(k.getIban(), k) != null) throw new IOException("IBAN doppelt im Snapshot: " + k.getIban());
+            maxKonto = Math.max(maxKonto, NummernGenerator.kontonummerAus(k.getIban()));
+        }
+        registriereAlle(geladen);
+
+        // Konten pro Kunde: zählen, dann in der Reihenfolge des Snapshots einfüllen
+        int anzahlKunden = ladung.anzahlKunden;
+        Konto[][] proKunde = new Konto[anzahlKunden][];
+        int[] gefuellt = new int[anzahlKunden];
+        for (int i = 0; i < n; i++) gefuellt[kundeVon[i]]++;
+        for (int c = 0; c < anzahlKunden; c++) {
+            proKunde[c] = new Konto[gefuellt[c]];
+            gefuellt[c] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            int c = kundeVon[i];
+            proKunde[c][gefuellt[c]++] = geladen[i];
+        }
+        @SuppressWarnings("unchecked")
+        Map.Entry<String, Kunde>[] namen = (Map.Entry<String, Kunde>[]) new Map.Entry<?, ?>[anzahlKunden];
+        int m = 0;
+        long maxKunde = 0;
+        for (int c = 0; c < anzahlKunden; c++) {
+            if (proKunde[c].length == 0) continue;
+            Kunde kunde = proKunde[c][0].getInhaber();
+            kontenNachKunde.put(kunde.getKundennummer(), proKunde[c]);
+            namen[m++] = Map.entry(namensSchluessel(kunde), kunde);
+            maxKunde = Math.max(maxKunde, NummernGenerator.kundenNummerAus(kunde.getKundennummer()));
+        }
+        // aufsteigend einfügen: halb so teuer wie in zufälliger Reihenfolge (der Suchpfad bleibt im Cache)
+        Arrays.sort(namen, 0, m, Map.Entry.comparingByKey());
+        for (int i = 0; i < m; i++) kundenNachName.put(namen[i].getKey(), namen[i].getValue());
+        kontoNummern.mindestens(maxKonto + 1);
+        kundenNummern.mindestens(maxKunde + 1);
+        return gen;
+    }
+
+    /** Sammelt die Konten eines Snapshots in Arrays, mit dem Kundenindex pro Konto. */
+    private static final class Ladung implements Snapshot.Leser {
+        Konto[] konten = new Konto[1024];
+        int[] kundeVon = new int[1024];
+        int anzahl;
+        int anzahlKunden;
+
+        @Override
+        public void konto(String iban, Kunde inhaber, int kundenIndex, long saldo) {
+            if (anzahl == konten.length) {
+                konten = Arrays.copyOf(konten, anzahl * 2);
+                kundeVon = Arrays.copyOf(kundeVon, anzahl * 2);
+            }
+            konten[anzahl] = Konto.mitRappen(iban, inhaber, saldo);
+            kundeVon[anzahl++] = kundenIndex;
+            anzahlKunden = Math.max(anzahlKunden, kundenIndex + 1);
+        }
+    }
+
+    private static String normalisiere(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /** Wie registriere(k) für viele Konten, mit einmal Sperren und Vergrössern. */
+    private synchronized void registriereAlle(Konto[] neu) {
+        if (registerGroesse + neu.length > register.length) {
+            register = Arrays.copyOf(register, Math.max(register.length * 2, registerGroesse + neu.length));
+        }
+        for (Konto k : neu) {
+            k.index = registerGroesse;
+            register[registerGroesse++] = k;
+            if (regelwerk != null) k.debitregeln = regelwerk.neuerVerlauf();
+            if (verlaufMax > 0) k.verlauf = new Kontoverlauf(k.saldoGesperrt(), verlaufMax);
+        }
+    }
+
+    private synchronized void registriere(Konto k) {
+        if (registerGroesse == register.length) register = Arrays.copyOf(register, registerGroesse * 2);
+        k.index = registerGroesse;
+        register[registerGroesse++] = k;
+        if (regelwerk != null) k.debitregeln = regelwerk.neuerVerlauf(); // vor dem Sichtbarwerden
+        if (verlaufMax > 0) k.verlauf = new Kontoverlauf(k.saldoGesperrt(), verlaufMax);
+    }
+
+    /**
+     * Setzt die Debitregeln für alle bestehenden und künftigen Konten (null = keine Limiten).
+     * Jedes Konto erhält einen neuen, leeren Debitverlauf; frühere Belastungen zählen nicht mit.
+     * Das Journal-Nachspielen prüft keine Regeln.
+     */
+    public synchronized void setRegelwerk(Regelwerk regelwerk) {
+        this.regelwerk = regelwerk;
+        for (int i = 0; i < registerGroesse; i++) {
+            Konto k = register[i];
+            k.sperren();
+            try {
+                k.debitregeln = regelwerk != null ? regelwerk.neuerVerlauf() : null;
+            } finally {
+                k.entsperren();
+            }
+        }
+    }
+
+    public synchronized Regelwerk getRegelwerk() {
+        return regelwerk;
+    }
+
+    /**
+     * Schaltet den Kontoverlauf für alle bestehenden und künftigen Konten ein (höchstens maxBuchungen
+     * pro Konto, ältere fallen weg) oder mit 0 aus. Jedes Konto beginnt mit einem leeren Verlauf beim
+     * aktuellen Saldo. Ohne Verlauf kostet eine Buchung keinen Speicher, es gibt aber keine Kontoauszüge.
+     */
+    public synchronized void setVerlauf(int maxBuchungen) {
+        if (maxBuchungen < 0 || maxBuchungen == 1) {
+            throw new IllegalArgumentException("Verlauf: 0 (aus) oder mindestens 2 Buchungen.");
+        }
+        this.verlaufMax = maxBuchungen;
+        for (int i = 0; i < registerGroesse; i++) {
+            Konto k = register[i];
+            k.sperren();
+            try {
+                k.verlauf = maxBuchungen > 0 ? new Kontoverlauf(k.saldoGesperrt(), maxBuchungen) : null;
+            } finally {
+                k.entsperren();
+            }
+        }
+    }
+
+    public synchronized int getVerlauf() {
+        return verlaufMax;
+    }
+
+    /** Schreibt den aktuellen Stand als Snapshot und startet ein leeres Journal der neuen Generation. */
+    private void verdichten() throws IOException {
+        generation++;
+        Snapshot.schreiben(verzeichnis.resolve(SNAPSHOT_DATEI), generation, konten.values());
+        neuesJournal();
+    }
+
+    /** Startet ein leeres Journal zur aktuellen Generation des Snapshots. */
+    private void neuesJournal() throws IOException {
+        journal = Journal.erstellen(verzeichnis.resolve(JOURNAL_DATEI), generation);
+        for (Konto k : konten.values()) k.journal = journal;
+    }
 }
@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 /**
@@ -7,25 +10,42 @@ import java.util.Scanner;
  * - Abheben
  * - Transfer
  * - Übersicht
+ * - Export (CSV/JSON) in eine Datei
+ * - Kontoauszug (alle Buchungen mit laufendem Saldo)
+ * - Metriken (Aufrufe, Fehler und Dauer pro Operation; nur mit -Dbank.metriken=true)
+ * - Snapshot speichern (alle Konten in eine kompakte Binärdatei)
  *
  * Zeigt:
  *  - Datenkapselung (private Attribute, Methodensteuerung)
  *  - Objektkommunikation (transfer → Methodenaufruf auf fremdem Konto mit Werteübergabe)
  *  - Zustandsänderung (Saldo ändert sich)
  *  - Primitive vs. komplexe Datentypen im Code
+ *
+ * Aufruf: java BankApp [datenverzeichnis | datei.snapshot]
+ *  - ohne Argument: alles nur im Speicher
+ *  - mit Verzeichnis: Konten werden über Snapshot + Journal gespeichert und beim nächsten Start geladen
+ *  - mit Snapshot-Datei (Menü 9): Konten daraus laden, danach nur im Speicher
  */
 
 public class BankApp {
 
-    public static void main(String[] args) {
-        Bank bank = new Bank("TBZ Bank");
+    public static void main(String[] args) throws IOException {
+        Bank bank;
+        if (args.length == 0) bank = new Bank("TBZ Bank");
+        else if (Files.isRegularFile(Path.of(args[0]))) bank = Bank.ladeSnapshot("TBZ Bank", Path.of(args[0]));
+        else bank = Bank.oeffnen("TBZ Bank", Path.of(args[0]));
+        bank.setVerlauf(10_000); // für Kontoauszüge (Menü 7), die letzten 10'000 Buchungen pro Konto
         Scanner sc = new Scanner(System.in);
 
-        // Demo-Daten (optional)
-        var k1 = bank.neuerKunde("Alice Example");
-        var k2 = bank.neuerKunde("Bob Muster");
-        var a = bank.kontoEroeffnen(k1, 1000.0);
-        var b = bank.kontoEroeffnen(k2, 200.0);
+        // Demo-Daten (optional, nur bei leerer Bank)
+        Konto a = null;
+        Konto b = null;
+        if (bank.alleKonten().isEmpty()) {
+            var k1 = bank.neuerKunde("Alice Example");
+            var k2 = bank.neuerKunde("Bob Muster");
+            a = bank.kontoEroeffnen(k1, 1000.0);
+            b = bank.kontoEroeffnen(k2, 200.0);
+        }
 
         boolean running = true;
         while (running) {
@@ -36,6 +56,10 @@ public class BankApp {
             System.out.println("3) Abheben");
             System.out.println("4) Transfer");
             System.out.println("5) Kontenübersicht");
+            System.out.println("6) Export (CSV/JSON)");
+            System.out.println("7) Kontoauszug");
+            System.out.println("8) Metriken");
+            System.out.println("9) Snapshot speichern");
             System.out.println("0) Beenden");
             System.out.print("Auswahl: ");
 
@@ -47,6 +71,10 @@ public class BankApp {
                     case "3" -> abheben(bank, sc);
                     case "4" -> transfer(bank, sc);
                     case "5" -> bank.druckeUebersicht();
+                    case "6" -> exportieren(bank, sc);
+                    case "7" -> kontoauszug(bank, sc);
+                    case "8" -> System.out.print(BankMetriken.alsText());
+                    case "9" -> snapshotSpeichern(bank, sc);
                     case "0" -> running = false;
                     default -> System.out.println("Ungültige Auswahl.");
                 }
@@ -56,10 +84,13 @@ public class BankApp {
         }
 
         // Primitive vs. komplex – kurze Demonstration zum Schluss:
-        double betrag = 50.0; // primitiver Typ (by value)
-        a.transfer(b, betrag, "Demo-Transfer");
-        System.out.println("Primitive Variable 'betrag' nach Transfer (unverändert): " + betrag);
+        if (a != null) {
+            double betrag = 50.0; // primitiver Typ (by value)
+            a.transfer(b, betrag, "Demo-Transfer");
+            System.out.println("Primitive Variable 'betrag' nach Transfer (unverändert): " + betrag);
+        }
 
+        bank.close();
         System.out.println("Programm beendet.");
         sc.close();
     }
@@ -70,39 +101,68 @@ public class BankApp {
         var kunde = bank.neuerKunde(name);
 
         System.out.print("Startsaldo (CHF): ");
-        double startSaldo = parseDouble(sc.nextLine());
+        long startSaldo = parseBetrag(sc.nextLine());
 
-        var konto = bank.kontoEroeffnen(kunde, startSaldo);
+        var konto = bank.kontoEroeffnenRappen(kunde, startSaldo);
         System.out.println("Konto erstellt: " + konto.getIban() + " | Inhaber: " + konto.getInhaber());
     }
 
     private static void einzahlen(Bank bank, Scanner sc) {
         var konto = frageKonto(bank, sc, "IBAN zum Einzahlen");
         System.out.print("Betrag (CHF): ");
-        double betrag = parseDouble(sc.nextLine());
-        konto.einzahlen(betrag);
-        System.out.printf("Eingezahlt. Neuer Saldo: %.2f CHF%n", konto.getSaldo());
+        long betrag = parseBetrag(sc.nextLine());
+        konto.einzahlenRappen(betrag);
+        System.out.printf("Eingezahlt. Neuer Saldo: %s CHF%n", Betrag.formatiere(konto.getSaldoRappen()));
     }
 
     private static void abheben(Bank bank, Scanner sc) {
         var konto = frageKonto(bank, sc, "IBAN zum Abheben");
         System.out.print("Betrag (CHF): ");
-        double betrag = parseDouble(sc.nextLine());
-        konto.abheben(betrag);
-        System.out.printf("Abgehoben. Neuer Saldo: %.2f CHF%n", konto.getSaldo());
+        long betrag = parseBetrag(sc.nextLine());
+        konto.abhebenRappen(betrag);
+        System.out.printf("Abgehoben. Neuer Saldo: %s CHF%n", Betrag.formatiere(konto.getSaldoRappen()));
     }
 
     private static void transfer(Bank bank, Scanner sc) {
         var quelle = frageKonto(bank, sc, "Quell-IBAN");
         var ziel   = frageKonto(bank, sc, "Ziel-IBAN");
         System.out.print("Betrag (CHF): ");
-        double betrag = parseDouble(sc.nextLine());
+        long betrag = parseBetrag(sc.nextLine());
         System.out.print("Referenz (optional): ");
         String ref = sc.nextLine().trim();
         if (ref.isBlank()) ref = "Ohne Referenz";
-        quelle.transfer(ziel, betrag, ref);
-        System.out.printf("Transfer OK. Quelle: %.2f CHF, Ziel: %.2f CHF%n",
-                quelle.getSaldo(), ziel.getSaldo());
+        quelle.transferRappen(ziel, betrag, ref);
+        System.out.printf("Transfer OK. Quelle: %s CHF, Ziel: %s CHF%n",
+                Betrag.formatiere(quelle.getSaldoRappen()), Betrag.formatiere(ziel.getSaldoRappen()));
+    }
+
+    private static void exportieren(Bank bank, Scanner sc) throws IOException {
+        System.out.print("Format (csv/json): ");
+        String f = sc.nextLine().trim().toLowerCase();
+        KontoExport.Format format = switch (f) {
+            case "csv" -> KontoExport.Format.CSV;
+            case "json" -> KontoExport.Format.JSON;
+            default -> throw new IllegalArgumentException("Unbekanntes Format: " + f);
+        };
+        System.out.print("Datei: ");
+        Path datei = Path.of(sc.nextLine().trim());
+        try (var out = Files.newBufferedWriter(datei)) {
+            long anzahl = bank.exportiere(out, format);
+            System.out.println(anzahl + " Konten nach " + datei + " exportiert.");
+        }
+    }
+
+    private static void snapshotSpeichern(Bank bank, Scanner sc) throws IOException {
+        System.out.print("Datei: ");
+        Path datei = Path.of(sc.nextLine().trim());
+        bank.speichereSnapshot(datei);
+        System.out.println(bank.alleKonten().size() + " Konten nach " + datei + " gespeichert ("
+                + Files.size(datei) + " Bytes). Laden mit: java BankApp " + datei);
+    }
+
+    private static void kontoauszug(Bank bank, Scanner sc) throws IOException {
+        var konto = frageKonto(bank, sc, "IBAN für Kontoauszug");
+        bank.schreibeAuszug(konto.getIban(), 0, Long.MAX_VALUE, System.out);
     }
 
     private static Konto frageKonto(Bank bank, Scanner sc, String prompt) {
@@ -112,11 +172,11 @@ public class BankApp {
                 .orElseThrow(() -> new IllegalArgumentException("Kein Konto mit IBAN " + iban + " gefunden."));
     }
 
-    private static double parseDouble(String s) {
+    private static long parseBetrag(String s) {
         try {
-            return Double.parseDouble(s.replace(",", "."));
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Bitte Zahl eingeben (z.B. 100.50).");
+            return Betrag.parse(s); // exakt in Rappen, ohne Umweg über double
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Betrag zu gross.");
         }
     }
 }
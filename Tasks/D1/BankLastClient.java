@@ -0,0 +1,133 @@
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lastgenerator für den BankServer.
+ * - Eröffnet zuerst einige Konten, dann schicken viele Threads gleichzeitig Transfers
+ *   (80%) und Einzahlungen (20%).
+ * - Misst pro Anfrage die Latenz und gibt Durchsatz sowie p50/p99/max aus; Anfragen ohne Antwort
+ *   (Verbindungsfehler) zählen als Fehler und nicht in die Latenzen.
+ * - Ohne Adresse wird ein BankServer im selben Prozess auf einem freien Port gestartet.
+ * - Schlägt das Eröffnen der Konten fehl, bricht der Lauf sofort ab (sonst liefe die Last auf ungültige IBANs).
+ *
+ * Aufruf: java BankLastClient [http://localhost:8080] [threads] [anfragenProThread] [konten]
+ */
+public class BankLastClient {
+
+    public static void main(String[] args) throws Exception {
+        String basis = args.length > 0 && !args[0].isBlank() ? args[0] : null;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int anfragenProThread = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        int anzahlKonten = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        BankServer lokal = null;
+        if (basis == null) {
+            lokal = new BankServer(new Bank("Last Bank"), 0, 64);
+            lokal.start();
+            basis = "http://localhost:" + lokal.getPort();
+        }
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String[] ibans = new String[anzahlKonten];
+        for (int i = 0; i < anzahlKonten; i++) {
+            HttpResponse<String> antwort = senden(client, basis + "/konten?name=" + enc("Last " + i) + "&saldo=100000");
+            if (antwort.statusCode() != 200) {
+                if (lokal != null) lokal.stop();
+                throw new IllegalStateException("Konto " + i + " nicht eröffnet: HTTP " + antwort.statusCode()
+                        + " " + antwort.body().trim());
+            }
+            ibans[i] = antwort.body().trim();
+        }
+
+        long[][] latenzen = new long[threads][anfragenProThread];
+        int[] gemessen = new int[threads]; // gefüllte Plätze in latenzen[t]; fehlgeschlagene Anfragen haben keine Latenz
+        int[] fehler = new int[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> worker = new ArrayList<>();
+        String ziel = basis;
+        for (int t = 0; t < threads; t++) {
+            int nr = t;
+            Thread th = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < anfragenProThread; i++) {
+                    int von = rnd.nextInt(anzahlKonten);
+                    String url;
+                    if (rnd.nextInt(10) < 8) {
+                        int nach = rnd.nextInt(anzahlKonten);
+                        if (nach == von) nach = (von + 1) % anzahlKonten;
+                        url = ziel + "/transfer?von=" + enc(ibans[von]) + "&nach=" + enc(ibans[nach])
+                                + "&betrag=" + (1 + rnd.nextInt(100));
+                    } else {
+                        url = ziel + "/einzahlen?iban=" + enc(ibans[von]) + "&betrag=" + (1 + rnd.nextInt(100));
+                    }
+                    try {
+                        long s = System.nanoTime();
+                        int status = senden(client, url).statusCode();
+                        latenzen[nr][gemessen[nr]++] = System.nanoTime() - s;
+                        if (status != 200 && status != 409) fehler[nr]++; // 409 = keine Deckung, fachlich ok
+                    } catch (Exception e) {
+                        fehler[nr]++; // nur diese Anfrage, der Thread macht weiter
+                    }
+                }
+            });
+            worker.add(th);
+            th.start();
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread th : worker) th.join();
+        long dauer = System.nanoTime() - t0;
+
+        int anzahlGemessen = 0;
+        int fehlerGesamt = 0;
+        for (int t = 0; t < threads; t++) {
+            anzahlGemessen += gemessen[t];
+            fehlerGesamt += fehler[t];
+        }
+        long[] alle = new long[anzahlGemessen];
+        int n = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(latenzen[t], 0, alle, n, gemessen[t]);
+            n += gemessen[t];
+        }
+        Arrays.sort(alle);
+        System.out.printf("%d Anfragen mit %d Threads in %.1f s → %.0f Antworten/s, Fehler: %d%n",
+                threads * anfragenProThread, threads, dauer / 1e9, alle.length / (dauer / 1e9), fehlerGesamt);
+        if (alle.length > 0) {
+            System.out.printf("Latenz (%d Antworten) p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", alle.length,
+                    perzentil(alle, 0.50) / 1e6, perzentil(alle, 0.99) / 1e6, alle[alle.length - 1] / 1e6);
+        } else {
+            System.out.println("Keine Antworten erhalten – keine Latenzen.");
+        }
+
+        if (lokal != null) lokal.stop();
+    }
+
+    private static HttpResponse<String> senden(HttpClient client, String url) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(URI.create(url)).POST(HttpRequest.BodyPublishers.noBody()).build();
+        return client.send(req, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static long perzentil(long[] sortiert, double p) {
+        int i = (int) Math.ceil(p * sortiert.length) - 1;
+        return sortiert[Math.max(0, Math.min(i, sortiert.length - 1))];
+    }
+
+    private static String enc(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8);
+    }
+}
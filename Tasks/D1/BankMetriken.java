@@ -0,0 +1,114 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Zähler und Latenz-Histogramme für die Buchungsoperationen.
+ * - Eingeschaltet mit -Dbank.metriken=true; AKTIV ist eine Konstante, d.h. ausgeschaltet
+ *   entfernt der JIT die Messung ganz (kein nanoTime, keine Zähler).
+ * - Zähler sind LongAdder (pro Thread gestreut) → keine gemeinsame Cache-Zeile auf dem Hot Path.
+ * - Histogramm mit Zweierpotenz-Klassen in Nanosekunden: Klasse i zählt Dauern < 2^i ns.
+ *   Perzentile sind daher Obergrenzen (höchstens Faktor 2 zu hoch).
+ * - Global für alle Konten, da ein Konto seine Bank nicht kennt.
+ */
+public final class BankMetriken {
+    public static final boolean AKTIV = Boolean.getBoolean("bank.metriken");
+
+    public enum Operation { EINZAHLEN, ABHEBEN, TRANSFER, SAMMELTRANSFER }
+
+    private static final int KLASSEN = 64;
+    private static final Zaehler[] ZAEHLER = new Zaehler[Operation.values().length];
+
+    static {
+        for (int i = 0; i < ZAEHLER.length; i++) ZAEHLER[i] = new Zaehler();
+    }
+
+    private BankMetriken() {
+    }
+
+    /** Startzeitpunkt für erfasse(...), oder 0 wenn ausgeschaltet. */
+    static long start() {
+        return AKTIV ? System.nanoTime() : 0;
+    }
+
+    /** Erfasst einen Aufruf mit seiner Dauer seit start(); erfolgreich = ohne Exception beendet. */
+    static void erfasse(Operation op, long start, boolean erfolgreich) {
+        if (!AKTIV) return;
+        long dauer = System.nanoTime() - start;
+        Zaehler z = ZAEHLER[op.ordinal()];
+        z.histogramm[Math.min(KLASSEN - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, dauer)))].increment();
+        z.summeNanos.add(dauer);
+        if (!erfolgreich) z.fehlgeschlagen.increment();
+    }
+
+    /** Zählt eine Ablehnung wegen fehlender Deckung (zusätzlich zu fehlgeschlagen). */
+    static void ungedeckt(Operation op) {
+        if (AKTIV) ZAEHLER[op.ordinal()].ungedeckt.increment();
+    }
+
+    public static long getAufrufe(Operation op) {
+        long n = 0;
+        for (LongAdder klasse : ZAEHLER[op.ordinal()].histogramm) n += klasse.sum();
+        return n;
+    }
+
+    public static long getFehlgeschlagen(Operation op) {
+        return ZAEHLER[op.ordinal()].fehlgeschlagen.sum();
+    }
+
+    public static long getUngedeckt(Operation op) {
+        return ZAEHLER[op.ordinal()].ungedeckt.sum();
+    }
+
+    /** Setzt alle Zähler zurück (z.B. nach dem Aufwärmen eines Benchmarks). */
+    public static void zuruecksetzen() {
+        for (Zaehler z : ZAEHLER) {
+            for (LongAdder klasse : z.histogramm) klasse.reset();
+            z.summeNanos.reset();
+            z.fehlgeschlagen.reset();
+            z.ungedeckt.reset();
+        }
+    }
+
+    /**
+     * Momentaufnahme als Text, eine Zeile pro Operation.
+     * Die Werte werden ohne Sperre gelesen und sind daher nur ungefähr gleichzeitig.
+     */
+    public static String alsText() {
+        StringBuilder sb = new StringBuilder(512);
+        if (!AKTIV) sb.append("Metriken sind ausgeschaltet (mit -Dbank.metriken=true starten).\n");
+        sb.append(String.format("%-15s %10s %10s %10s %10s %10s %10s %10s%n",
+                "Operation", "Aufrufe", "Fehler", "Ungedeckt", "Mittel µs", "p50 µs", "p99 µs", "Max µs"));
+        for (Operation op : Operation.values()) {
+            Zaehler z = ZAEHLER[op.ordinal()];
+            long[] klassen = new long[KLASSEN];
+            long n = 0;
+            for (int i = 0; i < KLASSEN; i++) n += klassen[i] = z.histogramm[i].sum();
+            sb.append(String.format("%-15s %10d %10d %10d %10.1f %10s %10s %10s%n", op, n,
+                    z.fehlgeschlagen.sum(), z.ungedeckt.sum(), n == 0 ? 0.0 : z.summeNanos.sum() / 1e3 / n,
+                    obergrenze(klassen, n, 0.50), obergrenze(klassen, n, 0.99), obergrenze(klassen, n, 1.0)));
+        }
+        return sb.toString();
+    }
+
+    /** Obergrenze der Klasse, in der das Perzentil p liegt, in µs ("<x"). */
+    private static String obergrenze(long[] klassen, long n, double p) {
+        if (n == 0) return "-";
+        long rang = Math.max(1, (long) Math.ceil(p * n));
+        long kumuliert = 0;
+        for (int i = 0; i < KLASSEN; i++) {
+            kumuliert += klassen[i];
+            if (kumuliert >= rang) return String.format("<%.1f", Math.scalb(1.0, i) / 1e3);
+        }
+        return "-";
+    }
+
+    private static final class Zaehler {
+        final LongAdder[] histogramm = new LongAdder[KLASSEN];
+        final LongAdder summeNanos = new LongAdder();
+        final LongAdder fehlgeschlagen = new LongAdder();
+        final LongAdder ungedeckt = new LongAdder();
+
+        Zaehler() {
+            for (int i = 0; i < KLASSEN; i++) histogramm[i] = new LongAdder();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP-Schnittstelle für eine gemeinsame Bank, damit andere Dienste sie nutzen können.
+ * - Basiert auf dem JDK-HttpServer (NIO-Selector für die Verbindungen, Thread-Pool für die Handler).
+ * - Parameter kommen als Query-String, Beträge in CHF wie in der BankApp ("100.50").
+ * - Antworten sind Text; Fehler: 400 (ungültige Eingabe), 404 (Konto unbekannt),
+ *   405 (falsche Methode), 409 (z.B. nicht genügend Deckung), 500 (unerwarteter Fehler, z.B. Journal).
+ * - Schaltet die Konsolenausgabe pro Transfer ab (Konto.setTransferAusgabe), sie wäre auf dem
+ *   heissen Pfad jeder Anfrage.
+ *
+ * Endpunkte:
+ *   POST /konten?name=...&saldo=...                  → IBAN des neuen Kontos
+ *   POST /einzahlen?iban=...&betrag=...               → neuer Saldo
+ *   POST /abheben?iban=...&betrag=...                 → neuer Saldo
+ *   POST /transfer?von=...&nach=...&betrag=...[&referenz=...] → Saldo der Quelle
+ *        optional mit Header "Idempotency-Key": Wiederholungen werden nicht nochmals gebucht
+ *   GET  /uebersicht[?format=text|csv|json][&nach=IBAN&anzahl=N] → Konten in IBAN-Reihenfolge
+ *   GET  /metriken                                    → BankMetriken als Text
+ *
+ * Aufruf: java BankServer [port] [datenverzeichnis]
+ */
+public class BankServer {
+    static {
+        // Header und Body werden getrennt geschrieben → ohne TCP_NODELAY warten kleine Antworten
+        // auf das verzögerte ACK des Clients (~40 ms pro Anfrage)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final Bank bank;
+    private final HttpServer server;
+    private final ExecutorService handler;
+
+    public BankServer(Bank bank, int port, int threads) throws IOException {
+        if (bank == null) throw new IllegalArgumentException("Bank darf nicht null sein.");
+        this.bank = bank;
+        Konto.setTransferAusgabe(false);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        this.handler = Executors.newFixedThreadPool(threads);
+        server.setExecutor(handler);
+        server.createContext("/konten", ex -> bearbeite(ex, "POST", this::kontoEroeffnen));
+        server.createContext("/einzahlen", ex -> bearbeite(ex, "POST", this::einzahlen));
+        server.createContext("/abheben", ex -> bearbeite(ex, "POST", this::abheben));
+        server.createContext("/transfer", ex -> bearbeite(ex, "POST",
+                p -> transfer(p, ex.getRequestHeaders().getFirst("Idempotency-Key"))));
+        server.createContext("/uebersicht", this::uebersicht);
+        server.createContext("/metriken", ex -> bearbeite(ex, "GET", p -> BankMetriken.alsText()));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        Bank bank = args.length > 1 ? Bank.oeffnen("TBZ Bank", Path.of(args[1])) : new Bank("TBZ Bank");
+        BankServer s = new BankServer(bank, port, Runtime.getRuntime().availableProcessors() * 8);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            s.stop();
+            try {
+                bank.close();
+            } catch (IOException e) {
+                System.err.println("Fehler beim Schliessen: " + e.getMessage());
+            }
+        }));
+        s.start();
+        System.out.println(bank.getName() + " läuft auf http://localhost:" + s.getPort() + "/");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        handler.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // --- Operationen ---
+
+    /** Eine Operation, die aus den Parametern eine Textantwort erzeugt. */
+    private interface Operation {
+        String ausfuehren(Map<String, String> parameter);
+    }
+
+    private String kontoEroeffnen(Map<String, String> p) {
+        Kunde kunde = bank.neuerKunde(pflicht(p, "name"));
+        String saldo = p.get("saldo");
+        Konto konto = bank.kontoEroeffnenRappen(kunde, saldo == null ? 0 : Betrag.parse(saldo));
+        return konto.getIban();
+    }
+
+    private String einzahlen(Map<String, String> p) {
+        Konto konto = konto(pflicht(p, "iban"));
+        konto.einzahlenRappen(Betrag.parse(pflicht(p, "betrag")));
+        return Betrag.formatiere(konto.getSaldoRappen());
+    }
+
+    private String abheben(Map<String, String> p) {
+        Konto konto = konto(pflicht(p, "iban"));
+        konto.abhebenRappen(Betrag.parse(pflicht(p, "betrag")));
+        return Betrag.formatiere(konto.getSaldoRappen());
+    }
+
+    private String transfer(Map<String, String> p, String idempotenzSchluessel) {
+        Konto quelle = konto(pflicht(p, "von"));
+        Konto ziel = konto(pflicht(p, "nach"));
+        String referenz = p.getOrDefault("referenz", "Ohne Referenz");
+        long betrag = Betrag.parse(pflicht(p, "betrag"));
+        if (idempotenzSchluessel == null) {
+            quelle.transferRappen(ziel, betrag, referenz);
+        } else if (!bank.transfer(idempotenzSchluessel, quelle.getIban(), ziel.getIban(), betrag, referenz)) {
+            return "Bereits ausgeführt. Saldo: " + Betrag.formatiere(quelle.getSaldoRappen());
+        }
+        return Betrag.formatiere(quelle.getSaldoRappen());
+    }
+
+    private void uebersicht(HttpExchange ex) throws IOException {
+        try (ex) {
+            if (!"GET".equals(ex.getRequestMethod())) {
+                antworte(ex, 405, "Nur GET erlaubt.");
+                return;
+            }
+            Map<String, String> p = parameter(ex);
+            KontoExport.Format format;
+            try {
+                format = KontoExport.Format.valueOf(p.getOrDefault("format", "text").toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                antworte(ex, 400, "Unbekanntes Format.");
+                return;
+            }
+            // Seite zuerst prüfen und lesen: nach sendResponseHeaders(200) ist kein Fehlerstatus mehr möglich
+            List<Konto> seite = null;
+            if (p.containsKey("anzahl")) {
+                int anzahl;
+                try {
+                    anzahl = Integer.parseInt(p.get("anzahl"));
+                } catch (NumberFormatException e) {
+                    antworte(ex, 400, "Parameter 'anzahl' ist keine Zahl.");
+                    return;
+                }
+                if (anzahl <= 0) {
+                    antworte(ex, 400, "Parameter 'anzahl' muss > 0 sein.");
+                    return;
+                }
+                String nach = p.get("nach");
+                if (nach != null && nach.isBlank()) {
+                    antworte(ex, 400, "Parameter 'nach' ist leer.");
+                    return;
+                }
+                seite = bank.kontenSeite(nach, anzahl);
+            } else if (p.containsKey("nach")) {
+                antworte(ex, 400, "Parameter 'nach' nur zusammen mit 'anzahl'.");
+                return;
+            }
+            ex.getResponseHeaders().set("Content-Type", switch (format) {
+                case CSV -> "text/csv; charset=utf-8";
+                case JSON -> "application/json; charset=utf-8";
+                case TEXT -> "text/plain; charset=utf-8";
+            });
+            ex.sendResponseHeaders(200, 0); // Länge unbekannt → chunked, wird direkt gestreamt
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(ex.getResponseBody(), StandardCharsets.UTF_8), 1 << 16);
+            if (seite != null) {
+                KontoExport export = new KontoExport(out, format);
+                export.beginne();
+                for (Konto k : seite) export.schreibe(k);
+                export.beende();
+            } else {
+                bank.exportiere(out, format);
+            }
+        }
+    }
+
+    // --- Hilfsmethoden ---
+
+    private void bearbeite(HttpExchange ex, String methode, Operation op) throws IOException {
+        try (ex) {
+            if (!methode.equals(ex.getRequestMethod())) {
+                antworte(ex, 405, "Nur " + methode + " erlaubt.");
+                return;
+            }
+            String antwort;
+            try {
+                antwort = op.ausfuehren(parameter(ex));
+            } catch (NoSuchElementException e) {
+                antworte(ex, 404, e.getMessage());
+                return;
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                antworte(ex, 400, e.getMessage());
+                return;
+            } catch (IllegalStateException e) {
+                antworte(ex, 409, e.getMessage());
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("Fehler bei " + ex.getRequestURI() + ": " + e);
+                antworte(ex, 500, "Interner Fehler.");
+                return;
+            }
+            antworte(ex, 200, antwort);
+        }
+    }
+
+    private Konto konto(String iban) {
+        return bank.findeKonto(iban).orElseThrow(() -> new NoSuchElementException("Kein Konto mit IBAN " + iban + " gefunden."));
+    }
+
+    private static String pflicht(Map<String, String> p, String name) {
+        String wert = p.get(name);
+        if (wert == null || wert.isBlank()) throw new IllegalArgumentException("Parameter '" + name + "' fehlt.");
+        return wert;
+    }
+
+    private static Map<String, String> parameter(HttpExchange ex) {
+        Map<String, String> p = new HashMap<>();
+        String query = ex.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) return p;
+        for (String paar : query.split("&")) {
+            int gleich = paar.indexOf('=');
+            if (gleich <= 0) continue;
+            p.put(URLDecoder.decode(paar.substring(0, gleich), StandardCharsets.UTF_8),
+                    URLDecoder.decode(paar.substring(gleich + 1), StandardCharsets.UTF_8));
+        }
+        return p;
+    }
+
+    private static void antworte(HttpExchange ex, int status, String text) throws IOException {
+        byte[] daten = (text + "\n").getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        ex.sendResponseHeaders(status, daten.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(daten);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Hilfsfunktionen für Geldbeträge als Festkommazahl in Rappen (long).
+ * - 1 CHF = 100 Rappen, gerechnet wird nur mit ganzen Zahlen → keine Rundungsdrift.
+ * - Alle Methoden sind statisch und erzeugen (ausser beim Formatieren) keine Objekte.
+ */
+public final class Betrag {
+    public static final long RAPPEN_PRO_FRANKEN = 100;
+
+    private Betrag() {
+    }
+
+    /** Adapter für die alte double-API: rundet auf den nächsten Rappen. */
+    public static long inRappen(double franken) {
+        if (Double.isNaN(franken) || Double.isInfinite(franken)) throw new IllegalArgumentException("Ungültiger Betrag.");
+        if (Math.abs(franken) > Long.MAX_VALUE / RAPPEN_PRO_FRANKEN) throw new IllegalArgumentException("Betrag zu gross.");
+        return Math.round(franken * RAPPEN_PRO_FRANKEN);
+    }
+
+    public static double inFranken(long rappen) {
+        return rappen / (double) RAPPEN_PRO_FRANKEN;
+    }
+
+    /**
+     * Liest einen Betrag wie "100", "100.5" oder "100,50" exakt (ohne Umweg über double).
+     * Mehr als zwei Nachkommastellen sind nicht erlaubt.
+     */
+    public static long parse(String text) {
+        if (text == null) throw new IllegalArgumentException("Bitte Zahl eingeben (z.B. 100.50).");
+        String s = text.trim();
+        int i = 0;
+        boolean negativ = false;
+        if (!s.isEmpty() && (s.charAt(0) == '-' || s.charAt(0) == '+')) {
+            negativ = s.charAt(0) == '-';
+            i++;
+        }
+        long franken = 0;
+        long rappen = 0;
+        int ziffern = 0;
+        int nachkomma = -1; // -1 = noch kein Dezimaltrennzeichen gesehen
+        for (; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '.' || c == ',') {
+                if (nachkomma >= 0) throw new IllegalArgumentException("Bitte Zahl eingeben (z.B. 100.50).");
+                nachkomma = 0;
+            } else if (c >= '0' && c <= '9') {
+                ziffern++;
+                if (nachkomma < 0) {
+                    franken = Math.addExact(Math.multiplyExact(franken, 10), c - '0');
+                } else {
+                    if (++nachkomma > 2) throw new IllegalArgumentException("Höchstens zwei Nachkommastellen erlaubt.");
+                    rappen = rappen * 10 + (c - '0');
+                }
+            } else {
+                throw new IllegalArgumentException("Bitte Zahl eingeben (z.B. 100.50).");
+            }
+        }
+        if (ziffern == 0) throw new IllegalArgumentException("Bitte Zahl eingeben (z.B. 100.50).");
+        if (nachkomma == 1) rappen *= 10; // "100.5" → 50 Rappen
+        long wert = Math.addExact(Math.multiplyExact(franken, RAPPEN_PRO_FRANKEN), rappen);
+        return negativ ? -wert : wert;
+    }
+
+    /** Formatiert z.B. 123450 → "1234.50". */
+    public static String formatiere(long rappen) {
+        return formatiere(new StringBuilder(24), rappen).toString();
+    }
+
+    /** Hängt den Betrag an einen (wiederverwendbaren) StringBuilder an. */
+    public static StringBuilder formatiere(StringBuilder sb, long rappen) {
+        if (rappen < 0) {
+            sb.append('-');
+            // Long.MIN_VALUE kann nicht negiert werden → über die Franken-Division gehen
+            long franken = -(rappen / RAPPEN_PRO_FRANKEN);
+            long rest = -(rappen % RAPPEN_PRO_FRANKEN);
+            return anhaengen(sb, franken, rest);
+        }
+        return anhaengen(sb, rappen / RAPPEN_PRO_FRANKEN, rappen % RAPPEN_PRO_FRANKEN);
+    }
+
+    private static StringBuilder anhaengen(StringBuilder sb, long franken, long rest) {
+        sb.append(franken).append('.');
+        if (rest < 10) sb.append('0');
+        return sb.append(rest);
+    }
+}
@@ -0,0 +1,148 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Vergleicht den alten double-Pfad mit dem neuen Rappen-Pfad (long) für Einzahlen und Transfer.
+ * - "alt":     Nachbau des früheren Kontos mit double saldo (gleiches Locking wie heute)
+ * - "adapter": heutige double-API von Konto (rechnet intern in Rappen um)
+ * - "rappen":  heutige long-API von Konto
+ * Zusätzlich wird gezeigt, dass double bei vielen kleinen Buchungen driftet.
+ *
+ * Einfacher Mess-Harness mit Aufwärmrunden (kein JMH im Projekt vorhanden).
+ * Aufruf: java BetragBenchmark [operationen]
+ */
+public class BetragBenchmark {
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        // Rundungsdrift: 1 Mio. mal 0.10 CHF einzahlen
+        AltesKonto drift = new AltesKonto(0);
+        Konto exakt = Konto.mitRappen("CH00-DRIFT", new Kunde("Drift", "K0000"), 0);
+        for (int i = 0; i < 1_000_000; i++) {
+            drift.einzahlen(0.10);
+            exakt.einzahlenRappen(10);
+        }
+        System.out.printf("Drift nach 1 Mio. x 0.10 CHF: double=%s, rappen=%s CHF%n",
+                Double.toString(drift.saldo), Betrag.formatiere(exakt.getSaldoRappen()));
+
+        for (int runde = 1; runde <= 5; runde++) {
+            boolean messen = runde > 2; // Runden 1-2 = Aufwärmen für den JIT
+            long alt = einzahlenAlt(ops);
+            long adapter = einzahlenAdapter(ops);
+            long rappen = einzahlenRappen(ops);
+            long tAlt = transferAlt(ops);
+            long tRappen = transferRappen(ops);
+            if (messen) {
+                System.out.printf("Runde %d  einzahlen: alt %.1f ns/op, adapter %.1f ns/op, rappen %.1f ns/op"
+                                + " | transfer: alt %.1f ns/op, rappen %.1f ns/op%n",
+                        runde, alt / (double) ops, adapter / (double) ops, rappen / (double) ops,
+                        tAlt / (double) ops, tRappen / (double) ops);
+            }
+        }
+    }
+
+    private static long einzahlenAlt(int ops) {
+        AltesKonto k = new AltesKonto(0);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ops; i++) k.einzahlen(0.05);
+        long t = System.nanoTime() - t0;
+        verbrauche(k.saldo);
+        return t;
+    }
+
+    private static long einzahlenAdapter(int ops) {
+        Konto k = Konto.mitRappen("CH00-A", new Kunde("A", "K0001"), 0);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ops; i++) k.einzahlen(0.05);
+        long t = System.nanoTime() - t0;
+        verbrauche(k.getSaldoRappen());
+        return t;
+    }
+
+    private static long einzahlenRappen(int ops) {
+        Konto k = Konto.mitRappen("CH00-A", new Kunde("A", "K0001"), 0);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ops; i++) k.einzahlenRappen(5);
+        long t = System.nanoTime() - t0;
+        verbrauche(k.getSaldoRappen());
+        return t;
+    }
+
+    private static long transferAlt(int ops) {
+        AltesKonto a = new AltesKonto(1e9);
+        AltesKonto b = new AltesKonto(1e9);
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            if ((i & 1) == 0) a.transfer(b, 0.05); else b.transfer(a, 0.05);
+        }
+        long t = System.nanoTime() - t0;
+        System.setOut(original);
+        verbrauche(a.saldo + b.saldo);
+        return t;
+    }
+
+    private static long transferRappen(int ops) {
+        Konto a = Konto.mitRappen("CH00-A", new Kunde("A", "K0001"), 100_000_000_000L);
+        Konto b = Konto.mitRappen("CH00-B", new Kunde("B", "K0002"), 100_000_000_000L);
+        // transferRappen schreibt eine Zeile pro Transfer → für die Messung ausblenden
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            if ((i & 1) == 0) a.transferRappen(b, 5, "Bench"); else b.transferRappen(a, 5, "Bench");
+        }
+        long t = System.nanoTime() - t0;
+        System.setOut(original);
+        verbrauche(a.getSaldoRappen() + b.getSaldoRappen());
+        return t;
+    }
+
+    private static double senke;
+
+    private static void verbrauche(double wert) {
+        senke += wert; // verhindert, dass der JIT die Schleifen wegoptimiert
+    }
+
+    /** Das frühere Konto mit double saldo, nur für den Vergleich. */
+    private static class AltesKonto {
+        private final ReentrantLock lock = new ReentrantLock();
+        private double saldo;
+
+        AltesKonto(double saldo) {
+            this.saldo = saldo;
+        }
+
+        void einzahlen(double betrag) {
+            if (betrag <= 0) throw new IllegalArgumentException("Betrag muss > 0 sein.");
+            lock.lock();
+            try {
+                saldo += betrag;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void transfer(AltesKonto ziel, double betrag) {
+            AltesKonto erstes = System.identityHashCode(this) < System.identityHashCode(ziel) ? this : ziel;
+            AltesKonto zweites = erstes == this ? ziel : this;
+            erstes.lock.lock();
+            try {
+                zweites.lock.lock();
+                try {
+                    if (betrag > saldo) throw new IllegalStateException("Nicht genügend Deckung.");
+                    saldo -= betrag;
+                    ziel.saldo += betrag;
+                } finally {
+                    zweites.lock.unlock();
+                }
+            } finally {
+                erstes.lock.unlock();
+            }
+            System.out.printf("Transfer '%s': %.2f CHF%n", "Bench", betrag); // wie früher
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Regel, die jede Belastung eines Kontos (Abhebung, Transfer als Quelle) vor dem Buchen prüft.
+ * - Wird unter dem Lock des Kontos ausgewertet; der Zustand liegt im Debitverlauf des Kontos.
+ * - erlaubt(...) darf nichts allozieren (wird bei jeder Belastung aufgerufen); die Meldung wird
+ *   daher beim Erstellen der Regel einmal gebildet.
+ * - Eigene Regeln lassen sich implementieren; benötigen sie die letzten N Zeitpunkte, muss
+ *   getAnzahlZeitpunkte() mindestens N liefern.
+ */
+public interface Debitregel {
+
+    /** @return true wenn die Belastung erlaubt ist */
+    boolean erlaubt(Debitverlauf verlauf, long jetztMillis, long betragRappen);
+
+    /** Meldung für die Exception, wenn die Regel eine Belastung ablehnt. */
+    String getMeldung();
+
+    /** Wie viele der letzten Belastungs-Zeitpunkte der Verlauf für diese Regel aufbewahren muss. */
+    default int getAnzahlZeitpunkte() {
+        return 0;
+    }
+
+    /** Höchstens {@code anzahl} Belastungen innerhalb eines gleitenden Fensters von {@code fensterMillis}. */
+    static Debitregel maxAnzahl(int anzahl, long fensterMillis) {
+        if (anzahl <= 0) throw new IllegalArgumentException("Anzahl muss > 0 sein.");
+        if (fensterMillis <= 0) throw new IllegalArgumentException("Fenster muss > 0 sein.");
+        String meldung = "Limite überschritten: höchstens " + anzahl + " Belastungen pro "
+                + (fensterMillis == 60_000 ? "Minute." : fensterMillis % 60_000 == 0 ? fensterMillis / 60_000 + " Minuten."
+                : fensterMillis + " ms.");
+        return new Debitregel() {
+            @Override
+            public boolean erlaubt(Debitverlauf verlauf, long jetztMillis, long betragRappen) {
+                // die anzahl-letzte Belastung muss ausserhalb des Fensters liegen
+                return verlauf.zeitpunktVonLetzter(anzahl) <= jetztMillis - fensterMillis;
+            }
+
+            @Override
+            public String getMeldung() {
+                return meldung;
+            }
+
+            @Override
+            public int getAnzahlZeitpunkte() {
+                return anzahl;
+            }
+        };
+    }
+
+    /** Höchstens {@code maxRappen} Belastungen in den letzten 24 Stunden (auf volle Stunden genau). */
+    static Debitregel maxBetragProTag(long maxRappen) {
+        if (maxRappen <= 0) throw new IllegalArgumentException("Betrag muss > 0 sein.");
+        String meldung = "Limite überschritten: höchstens " + Betrag.formatiere(maxRappen) + " CHF pro Tag.";
+        return new Debitregel() {
+            @Override
+            public boolean erlaubt(Debitverlauf verlauf, long jetztMillis, long betragRappen) {
+                return betragRappen <= maxRappen - verlauf.summeLetzte24Stunden(jetztMillis);
+            }
+
+            @Override
+            public String getMeldung() {
+                return meldung;
+            }
+        };
+    }
+
+    /** Höchstens {@code maxRappen} pro einzelner Belastung. */
+    static Debitregel maxBetragProBelastung(long maxRappen) {
+        if (maxRappen <= 0) throw new IllegalArgumentException("Betrag muss > 0 sein.");
+        String meldung = "Limite überschritten: höchstens " + Betrag.formatiere(maxRappen) + " CHF pro Belastung.";
+        return new Debitregel() {
+            @Override
+            public boolean erlaubt(Debitverlauf verlauf, long jetztMillis, long betragRappen) {
+                return betragRappen <= maxRappen;
+            }
+
+            @Override
+            public String getMeldung() {
+                return meldung;
+            }
+        };
+    }
+}
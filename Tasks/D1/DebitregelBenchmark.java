@@ -0,0 +1,119 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zusatzkosten der Debitregeln pro Belastung.
+ * - Abhebungen reihum über viele Konten, abwechselnd ohne und mit Regelwerk (dieselbe Bank);
+ *   die Differenz der ns pro Abhebung sind die Kosten der Regeln unter dem Konto-Lock.
+ * - Misst zusätzlich nur die Regelprüfung (Debitverlauf.pruefe + erfasse) inkl. allozierter Bytes,
+ *   die 0 sein müssen.
+ * - Zeigt am Schluss, wie Limiten eine Belastung ablehnen, auch in einem Sammeltransfer
+ *   (bricht mit AssertionError ab, wenn dieser trotz Limite gebucht wird).
+ *
+ * Aufruf: java DebitregelBenchmark [konten] [abhebungenProRunde]
+ */
+public class DebitregelBenchmark {
+    private static final int RUNDEN = 5;
+    private static long abgelehnt;
+
+    public static void main(String[] args) {
+        int anzahlKonten = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int proRunde = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+
+        Bank bank = new Bank("Regel Bank");
+        List<Konto> konten = new ArrayList<>();
+        for (int i = 0; i < anzahlKonten; i++) {
+            konten.add(bank.kontoEroeffnenRappen(bank.neuerKunde("Kunde " + i), 1_000_000_00));
+        }
+        // grosszügige Limiten, damit im Benchmark nichts abgelehnt wird, aber alle Regeln rechnen
+        Regelwerk regelwerk = new Regelwerk(
+                Debitregel.maxBetragProBelastung(10_000_00),
+                Debitregel.maxAnzahl(100, 1000),
+                Debitregel.maxBetragProTag(50_000_00));
+
+        long besteOhne = Long.MAX_VALUE;
+        long besteMit = Long.MAX_VALUE;
+        for (int runde = 0; runde < RUNDEN; runde++) { // erste Runden wärmen den JIT auf
+            bank.setRegelwerk(null);
+            besteOhne = Math.min(besteOhne, abheben(konten, proRunde));
+            bank.setRegelwerk(regelwerk);
+            besteMit = Math.min(besteMit, abheben(konten, proRunde));
+        }
+        System.out.printf("Abheben ohne Regeln: %.1f ns, mit %d Regeln: %.1f ns → +%.1f ns pro Belastung (beste von %d)%n",
+                besteOhne / (double) proRunde, regelwerk.getAnzahlRegeln(), besteMit / (double) proRunde,
+                (besteMit - besteOhne) / (double) proRunde, RUNDEN);
+        if (abgelehnt > 0) System.out.println(abgelehnt + " Abhebungen abgelehnt (zu wenige Konten für die Limiten)");
+
+        // nur die Regeln, ohne Konto und Kontoverlauf
+        Debitverlauf verlauf = regelwerk.neuerVerlauf();
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long uhr = 0;
+        for (int runde = 0; runde < RUNDEN; runde++) {
+            uhr = pruefen(verlauf, 1_000_000, uhr);
+        }
+        long bytesVorher = mx.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long t0 = System.nanoTime();
+        int n = 10_000_000;
+        uhr = pruefen(verlauf, n, uhr);
+        long dauer = System.nanoTime() - t0;
+        long bytes = mx.getThreadAllocatedBytes(Thread.currentThread().getId()) - bytesVorher;
+        System.out.printf("Nur Regeln (pruefe + erfasse): %.1f ns pro Belastung, %d Bytes alloziert für %d Belastungen%n",
+                dauer / (double) n, bytes, n);
+        if (uhr == 0) System.out.println(); // Ergebnis verwenden, damit der JIT die Schleife nicht entfernt
+
+        // Ablehnung
+        Konto konto = konten.get(0);
+        bank.setRegelwerk(new Regelwerk(Debitregel.maxBetragProTag(1000_00), Debitregel.maxAnzahl(3, 60_000)));
+        for (int i = 1; i <= 4; i++) {
+            try {
+                konto.abhebenRappen(10_00);
+                System.out.println("Abhebung " + i + ": OK");
+            } catch (IllegalStateException ex) {
+                System.out.println("Abhebung " + i + ": abgelehnt – " + ex.getMessage());
+            }
+        }
+        try {
+            konto.transferRappen(konten.get(1), 2000_00, "Limite");
+        } catch (IllegalStateException ex) {
+            System.out.println("Transfer 2000.00: abgelehnt – " + ex.getMessage());
+        }
+
+        // Sammeltransfer: dieselben Limiten, sonst liessen sie sich über sammelTransfer umgehen
+        Konto begrenzt = konten.get(2);
+        bank.setRegelwerk(new Regelwerk(Debitregel.maxBetragProBelastung(10_00)));
+        long saldoVorher = begrenzt.getSaldoRappen();
+        try {
+            bank.sammelTransfer(List.of(new Transferauftrag(begrenzt.getIban(), konten.get(3).getIban(), 500_00)));
+            throw new AssertionError("Sammeltransfer 500.00 trotz Limite von 10.00 pro Belastung gebucht");
+        } catch (IllegalStateException ex) {
+            if (begrenzt.getSaldoRappen() != saldoVorher) throw new AssertionError("Saldo trotz Ablehnung verändert");
+            System.out.println("Sammeltransfer 500.00: abgelehnt – " + ex.getMessage());
+        }
+    }
+
+    /** @return Dauer in ns */
+    private static long abheben(List<Konto> konten, int anzahl) {
+        int n = konten.size();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < anzahl; i++) {
+            try {
+                konten.get(i % n).abhebenRappen(1);
+            } catch (IllegalStateException ex) {
+                abgelehnt++;
+            }
+        }
+        return System.nanoTime() - t0;
+    }
+
+    /** Simulierte Uhr: alle 100 ms eine Belastung, bleibt unter den Limiten. @return neue Uhrzeit */
+    private static long pruefen(Debitverlauf verlauf, int anzahl, long startMillis) {
+        long jetzt = startMillis;
+        for (int i = 0; i < anzahl; i++) {
+            jetzt += 100;
+            verlauf.pruefe(jetzt, 1);
+            verlauf.erfasse(jetzt, 1);
+        }
+        return jetzt;
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.Arrays;
+
+/**
+ * Zustand der Debitregeln eines Kontos, einmal beim Zuweisen des Regelwerks angelegt.
+ * - Ring mit den Zeitpunkten der letzten N Belastungen (N = grösster Bedarf aller Regeln).
+ * - 24 Stunden-Töpfe mit der Summe der Belastungen pro Stunde (gleitender Tag, stundengenau) und
+ *   deren laufende Summe; abgelaufene Stunden werden erst beim nächsten Zugriff geleert.
+ * - Prüfen und Erfassen allozieren nichts; nur abgelehnte Belastungen erzeugen eine Exception.
+ * - Nicht threadsicher: wird nur unter dem Lock des zugehörigen Kontos verwendet.
+ */
+public final class Debitverlauf {
+    private static final long STUNDE = 60 * 60 * 1000L;
+
+    private final Regelwerk regelwerk;
+    private final long[] zeitpunkte; // Ring, zeitpunkte[letzter] = jüngste Belastung
+    private int letzter = -1;
+    private int anzahl;
+    private final long[] summe = new long[24]; // summe[h % 24] = Belastungen in Stunde h
+    private long stunde = Long.MIN_VALUE;       // jüngste Stunde in den Töpfen
+    private long summeTag;                      // Summe aller 24 Töpfe
+
+    Debitverlauf(Regelwerk regelwerk, int anzahlZeitpunkte) {
+        this.regelwerk = regelwerk;
+        this.zeitpunkte = new long[anzahlZeitpunkte];
+    }
+
+    /** Prüft alle Regeln; wirft IllegalStateException mit der Meldung der ersten verletzten Regel. */
+    void pruefe(long jetztMillis, long betragRappen) {
+        Debitregel verletzt = regelwerk.ersteVerletzte(this, jetztMillis, betragRappen);
+        if (verletzt != null) throw new IllegalStateException(verletzt.getMeldung());
+    }
+
+    /** Erfasst eine gebuchte Belastung. */
+    void erfasse(long jetztMillis, long betragRappen) {
+        if (zeitpunkte.length > 0) {
+            letzter = letzter + 1 == zeitpunkte.length ? 0 : letzter + 1;
+            zeitpunkte[letzter] = jetztMillis;
+            if (anzahl < zeitpunkte.length) anzahl++;
+        }
+        vorruecken(jetztMillis);
+        summe[(int) (stunde % 24)] += betragRappen;
+        summeTag += betragRappen;
+    }
+
+    /** Leert die Töpfe der Stunden, die aus dem 24-Stunden-Fenster gefallen sind (geht die Uhr zurück: nichts). */
+    private void vorruecken(long jetztMillis) {
+        long h = jetztMillis / STUNDE;
+        if (h <= stunde) return;
+        if (stunde == Long.MIN_VALUE || h - stunde >= 24) {
+            Arrays.fill(summe, 0);
+            summeTag = 0;
+        } else {
+            for (long s = stunde + 1; s <= h; s++) {
+                int topf = (int) (s % 24);
+                summeTag -= summe[topf];
+                summe[topf] = 0;
+            }
+        }
+        stunde = h;
+    }
+
+    /**
+     * Zeitpunkt der n-letzten Belastung (n = 1 → jüngste), oder Long.MIN_VALUE wenn es weniger als n gab.
+     * n darf höchstens so gross sein wie die Anzahl aufbewahrter Zeitpunkte.
+     */
+    public long zeitpunktVonLetzter(int n) {
+        if (n > anzahl) return Long.MIN_VALUE;
+        int i = letzter - (n - 1);
+        return zeitpunkte[i < 0 ? i + zeitpunkte.length : i];
+    }
+
+    /** Summe der Belastungen in der aktuellen und den 23 vorherigen Stunden (Rappen). */
+    public long summeLetzte24Stunden(long jetztMillis) {
+        vorruecken(jetztMillis);
+        return summeTag;
+    }
+}
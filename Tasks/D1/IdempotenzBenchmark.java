@@ -0,0 +1,92 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Last auf Bank.transfer(schlüssel, ...) mit Wiederholungen.
+ * - Teil 1: zwei Threads schicken dieselben Schlüssel gleichzeitig → jeder darf nur einmal gebucht werden.
+ * - Teil 2 (Dauerlast): jeder Thread schickt eigene Aufträge, jeder fünfte wird sofort nochmals geschickt.
+ *   Die Anzahl gemerkter Schlüssel muss begrenzt bleiben, egal wie viele Aufträge kommen.
+ * - Am Schluss muss der Saldo des Zielkontos genau der Anzahl eindeutiger Aufträge entsprechen.
+ *
+ * Aufruf: java IdempotenzBenchmark [threads] [auftraegeProThread]
+ */
+public class IdempotenzBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int auftraegeProThread = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+
+        Bank bank = new Bank("Idempotenz Bank");
+        Konto a = bank.kontoEroeffnenRappen(bank.neuerKunde("Quelle"), Long.MAX_VALUE / 2);
+        Konto b = bank.kontoEroeffnenRappen(bank.neuerKunde("Ziel"), 0);
+
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        AtomicLong gebucht = new AtomicLong();
+        AtomicLong wiederholt = new AtomicLong();
+
+        // Teil 1: gleichzeitige Duplikate (weniger Schlüssel als der Cache fasst → keiner wird verdrängt)
+        int geteilt = 50_000;
+        lauf(2, t -> {
+            for (int i = 0; i < geteilt; i++) zaehle(bank.transfer("geteilt-" + i, a.getIban(), b.getIban(), 1, "Doppelt"), gebucht, wiederholt);
+        });
+        long nachTeil1 = gebucht.get();
+
+        // Teil 2: Dauerlast mit eigenen Schlüsseln und Retries
+        long[] maxSchluessel = new long[1];
+        long dauer = lauf(threads, t -> {
+            for (int i = 0; i < auftraegeProThread; i++) {
+                String schluessel = "t" + t + "-" + i;
+                zaehle(bank.transfer(schluessel, a.getIban(), b.getIban(), 1, "Last"), gebucht, wiederholt);
+                if (i % 5 == 0) zaehle(bank.transfer(schluessel, a.getIban(), b.getIban(), 1, "Retry"), gebucht, wiederholt);
+                if (t == 0 && i % 10_000 == 0) maxSchluessel[0] = Math.max(maxSchluessel[0], bank.anzahlIdempotenzSchluessel());
+            }
+        });
+        System.setOut(original);
+
+        long versuche = (long) threads * auftraegeProThread * 6 / 5;
+        long eindeutig = geteilt + (long) threads * auftraegeProThread;
+        System.out.printf("Gleichzeitige Duplikate: %d Schlüssel von 2 Threads → %d gebucht → %s%n",
+                geteilt, nachTeil1, nachTeil1 == geteilt ? "OK" : "FEHLER");
+        System.out.printf("Dauerlast: %d Versuche in %.0f ms → %.0f/s, max. %d gemerkte Schlüssel%n",
+                versuche, dauer / 1e6, versuche / (dauer / 1e9), maxSchluessel[0]);
+        System.out.printf("Gebucht: %d (erwartet %d), Wiederholungen erkannt: %d, Saldo Ziel: %d Rappen → %s%n",
+                gebucht.get(), eindeutig, wiederholt.get(), b.getSaldoRappen(),
+                b.getSaldoRappen() == eindeutig && gebucht.get() == eindeutig ? "OK" : "FEHLER");
+    }
+
+    private interface Arbeit {
+        void ausfuehren(int thread);
+    }
+
+    /** Startet die Threads gleichzeitig und liefert die Dauer in Nanosekunden. */
+    private static long lauf(int threads, Arbeit arbeit) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> worker = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int nr = t;
+            Thread th = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                arbeit.ausfuehren(nr);
+            });
+            worker.add(th);
+            th.start();
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread th : worker) th.join();
+        return System.nanoTime() - t0;
+    }
+
+    private static void zaehle(boolean ausgefuehrt, AtomicLong gebucht, AtomicLong wiederholt) {
+        (ausgefuehrt ? gebucht : wiederholt).incrementAndGet();
+    }
+}
@@ -0,0 +1,128 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Begrenzter Cache für Idempotenz-Schlüssel: ein Auftrag mit demselben Schlüssel wird nur einmal ausgeführt.
+ * - Nachschlagen ohne Sperre (ConcurrentHashMap); erledigte Schlüssel kommen zusätzlich in einen Ring fester
+ *   Grösse. Ist der Ring voll oder der älteste Eintrag zu alt, wird der älteste entfernt
+ *   → der Speicher bleibt auch bei Dauerlast konstant.
+ * - Kommt derselbe Schlüssel gleichzeitig mehrmals, wartet jeder weitere auf das Ergebnis des ersten.
+ * - Wird der erste Auftrag abgewiesen (IllegalArgument-, IllegalState- oder ArithmeticException, z.B. keine
+ *   Deckung), wird der Schlüssel vergessen und ein Wiederholungsversuch neu ausgeführt: die Buchungen prüfen
+ *   alles, bevor sie etwas ändern. Jeder andere Fehler (z.B. Journal nicht schreibbar nach dem Buchen) kann
+ *   nach einer Änderung auftreten; der Schlüssel bleibt dann mit unbekanntem Ausgang gemerkt und
+ *   Wiederholungen werden mit einer IllegalStateException abgewiesen statt nochmals gebucht.
+ * - Derselbe Schlüssel mit anderem Inhalt (Fingerabdruck) wird abgewiesen.
+ * - Liegt nur im Speicher: nach einem Neustart oder nach dem Verdrängen gilt ein Schlüssel wieder als neu.
+ */
+final class IdempotenzCache {
+    private final ConcurrentHashMap<String, Eintrag> eintraege;
+    private final long maxAlterMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Eintrag[] ring; // erledigte Einträge nach Alter, nur unter lock
+    private int aeltester;
+    private int anzahl;
+
+    private static final class Eintrag {
+        final String schluessel;
+        final String fingerabdruck;
+        final CountDownLatch fertig = new CountDownLatch(1);
+        volatile boolean erfolgreich;
+        volatile boolean unbekannt; // nach einer möglichen Änderung fehlgeschlagen
+        volatile long zeitpunkt;
+
+        Eintrag(String schluessel, String fingerabdruck) {
+            this.schluessel = schluessel;
+            this.fingerabdruck = fingerabdruck;
+        }
+    }
+
+    IdempotenzCache(int maxEintraege, long maxAlterMillis) {
+        if (maxEintraege <= 0) throw new IllegalArgumentException("Maximale Anzahl muss > 0 sein.");
+        if (maxAlterMillis <= 0) throw new IllegalArgumentException("Maximales Alter muss > 0 sein.");
+        this.eintraege = new ConcurrentHashMap<>(Math.min(maxEintraege, 1 << 16) * 2);
+        this.ring = new Eintrag[maxEintraege];
+        this.maxAlterMillis = maxAlterMillis;
+    }
+
+    /**
+     * Führt den Auftrag aus, falls der Schlüssel noch nicht erfolgreich verwendet wurde.
+     *
+     * @return true wenn ausgeführt, false wenn der Schlüssel schon erledigt war (Wiederholung)
+     * @throws IllegalStateException wenn ein früherer Auftrag mit diesem Schlüssel mit unbekanntem Ausgang endete
+     */
+    boolean einmal(String schluessel, String fingerabdruck, Runnable auftrag) {
+        if (schluessel == null || schluessel.isBlank()) throw new IllegalArgumentException("Schlüssel darf nicht leer sein.");
+        while (true) {
+            Eintrag neu = new Eintrag(schluessel, fingerabdruck);
+            Eintrag vorhanden = eintraege.putIfAbsent(schluessel, neu);
+            if (vorhanden == null) {
+                try {
+                    auftrag.run();
+                    neu.zeitpunkt = System.currentTimeMillis(); // vor fertig setzen, Wartende lesen es
+                    neu.erfolgreich = true;
+                } catch (IllegalArgumentException | IllegalStateException | ArithmeticException e) {
+                    eintraege.remove(schluessel, neu); // abgewiesen, bevor etwas geändert wurde
+                    throw e;
+                } catch (RuntimeException | Error e) {
+                    neu.zeitpunkt = System.currentTimeMillis();
+                    neu.unbekannt = true; // evtl. schon gebucht → nicht nochmals ausführen
+                    merke(neu);
+                    throw e;
+                } finally {
+                    neu.fertig.countDown();
+                }
+                merke(neu);
+                return true;
+            }
+            if (!vorhanden.fingerabdruck.equals(fingerabdruck)) {
+                throw new IllegalArgumentException("Schlüssel " + schluessel + " wurde bereits für einen anderen Auftrag verwendet.");
+            }
+            warte(vorhanden);
+            if (vorhanden.erfolgreich || vorhanden.unbekannt) {
+                if (System.currentTimeMillis() - vorhanden.zeitpunkt > maxAlterMillis) {
+                    eintraege.remove(schluessel, vorhanden); // abgelaufen, aber noch nicht verdrängt
+                } else if (vorhanden.erfolgreich) {
+                    return false;
+                } else {
+                    throw new IllegalStateException("Ausgang des Auftrags mit Schlüssel " + schluessel
+                            + " ist unbekannt; er wird nicht wiederholt.");
+                }
+            }
+            // erster Versuch abgewiesen oder abgelaufen → nochmals versuchen
+        }
+    }
+
+    /** Anzahl gemerkter Schlüssel (inkl. laufender Aufträge). */
+    int groesse() {
+        return eintraege.size();
+    }
+
+    private void merke(Eintrag e) {
+        long jetzt = e.zeitpunkt;
+        lock.lock();
+        try {
+            while (anzahl > 0 && (anzahl == ring.length || jetzt - ring[aeltester].zeitpunkt > maxAlterMillis)) {
+                Eintrag alt = ring[aeltester];
+                eintraege.remove(alt.schluessel, alt);
+                ring[aeltester] = null;
+                aeltester = (aeltester + 1) % ring.length;
+                anzahl--;
+            }
+            ring[(aeltester + anzahl) % ring.length] = e;
+            anzahl++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void warte(Eintrag e) {
+        try {
+            e.fertig.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Warten auf gleichzeitigen Auftrag wurde unterbrochen.");
+        }
+    }
+}
@@ -0,0 +1,352 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Binäres Append-only-Journal (Write-Ahead-Log) für alle Buchungen einer Bank.
+ * - Jede Buchung wird als Datensatz [Länge][CRC32][Typ + Daten] angehängt, bevor sie im Speicher gilt.
+ * - Group Commit: die Aufrufer legen ihre Datensätze nur in einen Puffer; ein Schreib-Thread schreibt
+ *   alles Angesammelte auf einmal über den FileChannel und macht dafür ein einziges fsync (force).
+ * - warteAufCommit(seq) blockiert, bis der eigene Datensatz dauerhaft auf der Platte ist.
+ * - Der Dateikopf enthält eine Generation; nur ein Journal mit der Generation des Snapshots wird
+ *   beim Start nachgespielt (siehe Bank.oeffnen).
+ */
+public final class Journal implements AutoCloseable {
+    private static final int MAGIC = 0x4A524E4C; // "JRNL"
+    private static final int KOPF_LAENGE = 12;  // MAGIC + Generation
+
+    static final byte EROEFFNUNG = 1;
+    static final byte EINZAHLUNG = 2;
+    static final byte ABHEBUNG = 3;
+    static final byte TRANSFER = 4;
+    static final byte SAMMELBUCHUNG = 5;
+
+    /** Empfängt die Datensätze beim Nachspielen. */
+    interface Leser {
+        void eroeffnung(String iban, String kundennummer, String kundenName, long startSaldo);
+
+        void einzahlung(String iban, long betrag);
+
+        void abhebung(String iban, long betrag);
+
+        void transfer(String quellIban, String zielIban, long betrag);
+
+        /** Alle Veränderungen gehören zu einer atomaren Sammelbuchung. */
+        void sammelbuchung(String[] ibans, long[] deltas);
+    }
+
+    private final FileChannel kanal;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition arbeit = lock.newCondition();
+    private final Condition geschrieben = lock.newCondition();
+    private final CRC32 crc = new CRC32(); // nur unter lock verwenden
+    private final Thread schreiber;
+
+    // --- alles Folgende nur unter lock ---
+    private ByteBuffer offen = ByteBuffer.allocate(64 * 1024);     // wird von den Aufrufern gefüllt
+    private ByteBuffer inArbeit = ByteBuffer.allocate(64 * 1024);  // wird gerade vom Schreiber geschrieben
+    private long letzteSequenz;    // zuletzt vergebene Sequenznummer
+    private long dauerhafteSequenz; // bis hierhin ist alles per fsync gesichert
+    private long anzahlSyncs;
+    private boolean geschlossen;
+    private IOException fehler;
+
+    private Journal(FileChannel kanal) {
+        this.kanal = kanal;
+        this.schreiber = new Thread(this::schreibSchleife, "journal-schreiber");
+        schreiber.setDaemon(true); // Dauerhaftigkeit kommt von warteAufCommit, nicht vom Prozessende
+        schreiber.start();
+    }
+
+    /**
+     * Legt ein neues, leeres Journal mit der gegebenen Generation an (eine bestehende Datei wird ersetzt).
+     */
+    public static Journal erstellen(Path datei, long generation) throws IOException {
+        FileChannel kanal = FileChannel.open(datei, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer kopf = ByteBuffer.allocate(KOPF_LAENGE).putInt(MAGIC).putLong(generation).flip();
+        while (kopf.hasRemaining()) kanal.write(kopf);
+        kanal.force(true);
+        return new Journal(kanal);
+    }
+
+    /**
+     * Spielt alle vollständigen Datensätze eines Journals nach. Ein abgeschnittener oder beschädigter
+     * Datensatz am Ende (Absturz mitten im Schreiben) beendet das Lesen; er wurde nie bestätigt.
+     *
+     * @return Anzahl nachgespielter Datensätze, oder -1 wenn die Datei fehlt oder zu einer anderen Generation gehört
+     */
+    public static long nachspielen(Path datei, long generation, Leser leser) throws IOException {
+        if (!Files.exists(datei)) return -1;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(FileChannel.open(datei, StandardOpenOption.READ)), 1 << 16))) {
+            try {
+                if (in.readInt() != MAGIC || in.readLong() != generation) return -1;
+            } catch (EOFException e) {
+                return -1;
+            }
+            CRC32 pruefsumme = new CRC32();
+            byte[] daten = new byte[256];
+            long anzahl = 0;
+            while (true) {
+                int laenge;
+                int erwartet;
+                try {
+                    laenge = in.readInt();
+                    erwartet = in.readInt();
+                    if (laenge <= 0 || laenge > 1 << 28) return anzahl;
+                    if (daten.length < laenge) daten = new byte[Math.max(laenge, daten.length * 2)];
+                    in.readFully(daten, 0, laenge);
+                } catch (EOFException e) {
+                    return anzahl;
+                }
+                pruefsumme.reset();
+                pruefsumme.update(daten, 0, laenge);
+                if ((int) pruefsumme.getValue() != erwartet) return anzahl;
+                lies(ByteBuffer.wrap(daten, 0, laenge), leser);
+                anzahl++;
+            }
+        }
+    }
+
+    private static void lies(ByteBuffer b, Leser leser) {
+        byte typ = b.get();
+        switch (typ) {
+            case EROEFFNUNG -> leser.eroeffnung(liesText(b), liesText(b), liesText(b), b.getLong());
+            case EINZAHLUNG -> leser.einzahlung(liesText(b), b.getLong());
+            case ABHEBUNG -> leser.abhebung(liesText(b), b.getLong());
+            case TRANSFER -> leser.transfer(liesText(b), liesText(b), b.getLong());
+            case SAMMELBUCHUNG -> {
+                int n = b.getInt();
+                String[] ibans = new String[n];
+                long[] deltas = new long[n];
+                for (int i = 0; i < n; i++) {
+                    ibans[i] = liesText(b);
+                    deltas[i] = b.getLong();
+                }
+                leser.sammelbuchung(ibans, deltas);
+            }
+            default -> throw new IllegalStateException("Unbekannter Journal-Datensatz: " + typ);
+        }
+    }
+
+    // --- Anhängen (wird unter dem Konto-Lock aufgerufen, damit die Reihenfolge stimmt) ---
+
+    public long eroeffnung(String iban, String kundennummer, String kundenName, long startSaldo) {
+        byte[] i = iban.getBytes(StandardCharsets.UTF_8);
+        byte[] k = kundennummer.getBytes(StandardCharsets.UTF_8);
+        byte[] n = kundenName.getBytes(StandardCharsets.UTF_8);
+        lock.lock();
+        try {
+            int start = beginne(1 + 6 + i.length + k.length + n.length + 8);
+            offen.put(EROEFFNUNG);
+            schreibeText(i);
+            schreibeText(k);
+            schreibeText(n);
+            offen.putLong(startSaldo);
+            return beende(start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long einzahlung(String iban, long betrag) {
+        return buchung(EINZAHLUNG, iban, betrag);
+    }
+
+    public long abhebung(String iban, long betrag) {
+        return buchung(ABHEBUNG, iban, betrag);
+    }
+
+    public long transfer(String quellIban, String zielIban, long betrag) {
+        byte[] q = quellIban.getBytes(StandardCharsets.UTF_8);
+        byte[] z = zielIban.getBytes(StandardCharsets.UTF_8);
+        lock.lock();
+        try {
+            int start = beginne(1 + 4 + q.length + z.length + 8);
+            offen.put(TRANSFER);
+            schreibeText(q);
+            schreibeText(z);
+            offen.putLong(betrag);
+            return beende(start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Schreibt die ersten {@code anzahl} Konto-Veränderungen als einen einzigen Datensatz. */
+    public long sammelbuchung(Konto[] konten, long[] deltas, int anzahl) {
+        byte[][] ibans = new byte[anzahl][];
+        int groesse = 1 + 4;
+        for (int i = 0; i < anzahl; i++) {
+            ibans[i] = konten[i].getIban().getBytes(StandardCharsets.UTF_8);
+            groesse += 2 + ibans[i].length + 8;
+        }
+        lock.lock();
+        try {
+            int start = beginne(groesse);
+            offen.put(SAMMELBUCHUNG);
+            offen.putInt(anzahl);
+            for (int i = 0; i < anzahl; i++) {
+                schreibeText(ibans[i]);
+                offen.putLong(deltas[i]);
+            }
+            return beende(start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long buchung(byte typ, String iban, long betrag) {
+        byte[] i = iban.getBytes(StandardCharsets.UTF_8);
+        lock.lock();
+        try {
+            int start = beginne(1 + 2 + i.length + 8);
+            offen.put(typ);
+            schreibeText(i);
+            offen.putLong(betrag);
+            return beende(start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Reserviert Platz für Länge + CRC und liefert die Startposition des Datensatzes. */
+    private int beginne(int maxNutzdaten) {
+        if (fehler != null) throw new UncheckedIOException("Journal nicht mehr schreibbar.", fehler);
+        if (geschlossen) throw new IllegalStateException("Journal ist geschlossen.");
+        int benoetigt = 8 + maxNutzdaten;
+        if (offen.remaining() < benoetigt) {
+            ByteBuffer groesser = ByteBuffer.allocate(Math.max(offen.capacity() * 2, offen.position() + benoetigt));
+            offen.flip();
+            groesser.put(offen);
+            offen = groesser;
+        }
+        int start = offen.position();
+        offen.position(start + 8);
+        return start;
+    }
+
+    private long beende(int start) {
+        int laenge = offen.position() - start - 8;
+        crc.reset();
+        crc.update(offen.array(), start + 8, laenge);
+        offen.putInt(start, laenge);
+        offen.putInt(start + 4, (int) crc.getValue());
+        arbeit.signal();
+        return ++letzteSequenz;
+    }
+
+    private void schreibeText(byte[] text) {
+        offen.putShort((short) text.length);
+        offen.put(text);
+    }
+
+    private static String liesText(ByteBuffer b) {
+        int laenge = b.getShort() & 0xFFFF;
+        String s = new String(b.array(), b.position(), laenge, StandardCharsets.UTF_8);
+        b.position(b.position() + laenge);
+        return s;
+    }
+
+    /**
+     * Blockiert, bis der Datensatz mit dieser Sequenznummer per fsync gesichert ist.
+     * Erst danach gilt eine Buchung gegenüber dem Aufrufer als bestätigt.
+     */
+    public void warteAufCommit(long sequenz) {
+        lock.lock();
+        try {
+            while (dauerhafteSequenz < sequenz && fehler == null) {
+                geschrieben.awaitUninterruptibly();
+            }
+            if (dauerhafteSequenz < sequenz) throw new UncheckedIOException("Journal nicht mehr schreibbar.", fehler);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Anzahl bisheriger fsync-Aufrufe (für Benchmarks). */
+    public long getAnzahlSyncs() {
+        lock.lock();
+        try {
+            return anzahlSyncs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void schreibSchleife() {
+        while (true) {
+            long bis;
+            ByteBuffer puffer;
+            lock.lock();
+            try {
+                while (offen.position() == 0 && !geschlossen) {
+                    arbeit.awaitUninterruptibly();
+                }
+                if (offen.position() == 0) return; // geschlossen und alles geschrieben
+                puffer = offen;
+                offen = inArbeit;
+                inArbeit = puffer;
+                bis = letzteSequenz;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException problem = null;
+            try {
+                puffer.flip();
+                while (puffer.hasRemaining()) kanal.write(puffer);
+                kanal.force(false); // ein fsync für alle gesammelten Datensätze
+            } catch (IOException e) {
+                problem = e;
+            }
+            puffer.clear();
+
+            lock.lock();
+            try {
+                if (problem != null) {
+                    fehler = problem;
+                } else {
+                    dauerhafteSequenz = bis;
+                    anzahlSyncs++;
+                }
+                geschrieben.signalAll();
+                if (problem != null) return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Schreibt alle ausstehenden Datensätze, beendet den Schreib-Thread und schliesst die Datei. */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            geschlossen = true;
+            arbeit.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            schreiber.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        kanal.close();
+        if (fehler != null) throw fehler;
+    }
+}
@@ -0,0 +1,89 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Misst den dauerhaften Durchsatz des Journals (jeder Transfer ist nach Rückkehr per fsync gesichert).
+ * - Viele Threads buchen gleichzeitig; dank Group Commit teilen sich viele Transfers ein fsync.
+ * - Danach wird ein Absturz simuliert (Bank wird nicht geschlossen) und die Bank aus Snapshot +
+ *   Journal neu geladen; alle Saldi müssen übereinstimmen.
+ *
+ * Aufruf: java JournalBenchmark [threads] [konten] [transfersProThread] [verzeichnis]
+ */
+public class JournalBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int anzahlKonten = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int transfersProThread = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        Path verzeichnis = args.length > 3 ? Path.of(args[3]) : Files.createTempDirectory("bank-journal");
+
+        Bank bank = Bank.oeffnen("Benchmark Bank", verzeichnis);
+        List<Konto> konten = new ArrayList<>();
+        for (int i = 0; i < anzahlKonten; i++) {
+            konten.add(bank.kontoEroeffnenRappen(bank.neuerKunde("Kunde " + i), 1000_00));
+        }
+        Journal journal = konten.get(0).journal;
+        long syncsVorher = journal.getAnzahlSyncs();
+
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> worker = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread th = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < transfersProThread; i++) {
+                    Konto quelle = konten.get(rnd.nextInt(anzahlKonten));
+                    Konto ziel = konten.get(rnd.nextInt(anzahlKonten));
+                    if (quelle == ziel) continue;
+                    try {
+                        quelle.transferRappen(ziel, 1 + rnd.nextInt(5000), "Journal");
+                    } catch (IllegalStateException ex) {
+                        // Nicht genügend Deckung ist hier erlaubt
+                    }
+                }
+            });
+            worker.add(th);
+            th.start();
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread th : worker) th.join();
+        long dauer = System.nanoTime() - t0;
+        System.setOut(original);
+
+        long total = (long) threads * transfersProThread;
+        long syncs = journal.getAnzahlSyncs() - syncsVorher;
+        System.out.printf("Threads: %d, Transfers: %d, fsyncs: %d (%.1f Transfers pro fsync)%n",
+                threads, total, syncs, total / (double) Math.max(1, syncs));
+        System.out.printf("Dauerhafter Durchsatz: %.0f Transfers/s%n", total / (dauer / 1e9));
+
+        // "Absturz": bank wird nicht geschlossen, der Stand muss aus Snapshot + Journal zurückkommen
+        Map<String, Long> erwartet = new HashMap<>();
+        for (Konto k : bank.alleKonten()) erwartet.put(k.getIban(), k.getSaldoRappen());
+        long l0 = System.nanoTime();
+        Bank geladen = Bank.oeffnen("Benchmark Bank", verzeichnis);
+        long ladezeit = System.nanoTime() - l0;
+        boolean gleich = geladen.alleKonten().size() == erwartet.size();
+        for (Konto k : geladen.alleKonten()) {
+            gleich &= erwartet.get(k.getIban()) == k.getSaldoRappen();
+        }
+        geladen.close();
+        System.out.printf("Wiederherstellung in %.1f ms → %s%n", ladezeit / 1e6,
+                gleich ? "OK (alle Saldi identisch)" : "FEHLER");
+        if (!gleich) System.exit(1);
+    }
+}
@@ -1,22 +1,52 @@
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Repräsentiert ein Bankkonto mit Kapselung und Zustandsänderung.
  * - saldo ist privat, veränderbar nur über Methoden (einzahlen/abheben/transfer).
  * - Kommunikation: transfer(...) ruft Methoden auf einem *anderen* Konto-Objekt auf.
- * - Primitive Datentypen: double (saldo, betrag)
+ * - Primitive Datentypen: long (saldo und betrag in Rappen, Festkomma)
  * - Komplex: Kunde (Referenztyp)
+ * - Threadsicher: jedes Konto hat ein eigenes Lock; ein Transfer sperrt beide
+ *   Konten immer in IBAN-Reihenfolge, damit gegenläufige Transfers nicht verklemmen.
+ * - Die Methoden mit double (CHF) sind Adapter auf die Rappen-Methoden.
+ * - Hat die Bank den Verlauf eingeschaltet (Bank.setVerlauf), wird jede Buchung im Kontoverlauf
+ *   (spaltenweise, primitive Arrays, begrenzte Anzahl) festgehalten.
+ * - Gehört das Konto zu einer Bank mit Journal, wird jede Buchung zuerst ins Journal geschrieben
+ *   (unter dem Konto-Lock) und erst nach dem fsync an den Aufrufer bestätigt.
+ * - transfer gibt pro Buchung eine Zeile auf System.out aus; abschaltbar mit setTransferAusgabe(false)
+ *   (der BankServer tut das, damit die Konsole nicht zum Engpass wird).
+ * - Mit -Dbank.metriken=true werden Aufrufe, Fehler und Dauer in BankMetriken erfasst.
+ * - Hat die Bank ein Regelwerk, prüft abheben/transfer unter dem Lock zusätzlich die Debitregeln
+ *   (z.B. Anzahl Belastungen pro Fenster, Betrag pro Tag) anhand des Debitverlaufs des Kontos.
  */
 public class Konto {
+    private static volatile boolean transferAusgabe = true;
+
     private final String iban;
     private final Kunde inhaber;
-    private double saldo; // primitiver Typ: double → wird by value übergeben
+    private final ReentrantLock lock = new ReentrantLock();
+    private long saldo; // in Rappen; primitiver Typ → wird by value übergeben (nur unter lock lesen/schreiben)
+    Kontoverlauf verlauf;            // null = kein Verlauf; wird von der Bank gesetzt (nur unter lock)
+    Journal journal;    // null = nicht persistent; wird von der Bank gesetzt
+    int index = Kontoverlauf.EXTERN; // Position im Register der Bank (Gegenkonto im Verlauf)
+    Debitverlauf debitregeln;        // null = keine Limiten; wird von der Bank gesetzt (nur unter lock)
 
     public Konto(String iban, Kunde inhaber, double startSaldo) {
+        this(iban, inhaber, Betrag.inRappen(startSaldo));
+    }
+
+    private Konto(String iban, Kunde inhaber, long startSaldoRappen) {
         if (iban == null || iban.isBlank()) throw new IllegalArgumentException("IBAN darf nicht leer sein.");
         if (inhaber == null) throw new IllegalArgumentException("Inhaber darf nicht null sein.");
-        if (startSaldo < 0) throw new IllegalArgumentException("Startsaldo darf nicht negativ sein.");
+        if (startSaldoRappen < 0) throw new IllegalArgumentException("Startsaldo darf nicht negativ sein.");
         this.iban = iban;
         this.inhaber = inhaber;
-        this.saldo = startSaldo;
+        this.saldo = startSaldoRappen;
+    }
+
+    /** Eröffnet ein Konto mit einem Startsaldo in Rappen. */
+    static Konto mitRappen(String iban, Kunde inhaber, long startSaldoRappen) {
+        return new Konto(iban, inhaber, startSaldoRappen);
     }
 
     public String getIban() {
@@ -28,40 +58,218 @@ public class Konto {
     }
 
     public double getSaldo() {
-        return saldo;
+        return Betrag.inFranken(getSaldoRappen());
+    }
+
+    public long getSaldoRappen() {
+        lock.lock();
+        try {
+            return saldo;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Schaltet die Konsolenzeile pro Transfer für alle Konten ein oder aus (Standard: ein). */
+    public static void setTransferAusgabe(boolean ein) {
+        transferAusgabe = ein;
     }
 
     // --- Zustandsänderungen (nur über Methoden erlaubt = Kapselung) ---
 
     public void einzahlen(double betrag) {
+        einzahlenRappen(Betrag.inRappen(betrag));
+    }
+
+    public void einzahlenRappen(long betrag) {
+        long start = BankMetriken.start();
+        boolean ok = false;
+        try {
+            bucheEinzahlung(betrag);
+            ok = true;
+        } finally {
+            BankMetriken.erfasse(BankMetriken.Operation.EINZAHLEN, start, ok);
+        }
+    }
+
+    private void bucheEinzahlung(long betrag) {
         pruefePositivenBetrag(betrag);
-        saldo += betrag; // Zustand ändert sich
+        long sequenz = 0;
+        lock.lock();
+        try {
+            Math.addExact(saldo, betrag); // Überlauf prüfen, bevor etwas ins Journal geht
+            if (journal != null) sequenz = journal.einzahlung(iban, betrag);
+            saldo += betrag; // Zustand ändert sich
+            if (verlauf != null) verlauf.erfasse(System.currentTimeMillis(), betrag, Kontoverlauf.EXTERN);
+        } finally {
+            lock.unlock();
+        }
+        if (journal != null) journal.warteAufCommit(sequenz);
     }
 
     public void abheben(double betrag) {
+        abhebenRappen(Betrag.inRappen(betrag));
+    }
+
+    public void abhebenRappen(long betrag) {
+        long start = BankMetriken.start();
+        boolean ok = false;
+        try {
+            bucheAbhebung(betrag);
+            ok = true;
+        } finally {
+            BankMetriken.erfasse(BankMetriken.Operation.ABHEBEN, start, ok);
+        }
+    }
+
+    private void bucheAbhebung(long betrag) {
         pruefePositivenBetrag(betrag);
-        if (betrag > saldo) throw new IllegalStateException("Nicht genügend Deckung.");
-        saldo -= betrag; // Zustand ändert sich
+        long sequenz = 0;
+        lock.lock();
+        try {
+            pruefeDeckung(betrag, BankMetriken.Operation.ABHEBEN);
+            long jetzt = System.currentTimeMillis();
+            if (debitregeln != null) debitregeln.pruefe(jetzt, betrag);
+            if (journal != null) sequenz = journal.abhebung(iban, betrag);
+            saldo -= betrag; // Zustand ändert sich
+            if (verlauf != null) verlauf.erfasse(jetzt, -betrag, Kontoverlauf.EXTERN);
+            if (debitregeln != null) debitregeln.erfasse(jetzt, betrag);
+        } finally {
+            lock.unlock();
+        }
+        if (journal != null) journal.warteAufCommit(sequenz);
+    }
+
+    public void transfer(Konto ziel, double betrag, String referenz) {
+        transferRappen(ziel, Betrag.inRappen(betrag), referenz);
     }
 
     /**
      * Kommunikation & Werteübergabe:
-     * - dieses Konto ("Quelle") ruft Methoden auf dem Zielkonto auf und übergibt den Betrag (double)
+     * - dieses Konto ("Quelle") ruft Methoden auf dem Zielkonto auf und übergibt den Betrag (long)
+     * - beide Konten werden für die ganze Buchung gesperrt, d.h. andere Threads sehen
+     *   nie einen halb verschobenen Betrag
      */
-    public void transfer(Konto ziel, double betrag, String referenz) {
+    public void transferRappen(Konto ziel, long betrag, String referenz) {
+        long start = BankMetriken.start();
+        boolean ok = false;
+        try {
+            bucheTransfer(ziel, betrag);
+            ok = true;
+        } finally {
+            BankMetriken.erfasse(BankMetriken.Operation.TRANSFER, start, ok);
+        }
+        // Ausgabe erst nach dem Freigeben der Locks, damit andere Threads nicht auf System.out warten
+        if (transferAusgabe) System.out.printf("Transfer '%s': %s → %s: %s CHF%n", referenz, this.iban, ziel.iban, Betrag.formatiere(betrag));
+    }
+
+    private void bucheTransfer(Konto ziel, long betrag) {
         if (ziel == null) throw new IllegalArgumentException("Zielkonto darf nicht null sein.");
         if (this == ziel) throw new IllegalArgumentException("Transfer an sich selbst ist nicht erlaubt.");
-        abheben(betrag);        // Zustand Quelle ändert sich
-        ziel.einzahlen(betrag); // Methode auf fremdem Objekt, Wert wird übergeben
-        System.out.printf("Transfer '%s': %s → %s: %.2f CHF%n", referenz, this.iban, ziel.iban, betrag);
+        pruefePositivenBetrag(betrag);
+
+        // globale Sperrreihenfolge: kleinere IBAN zuerst → kein Deadlock bei A→B und B→A
+        Konto erstes = iban.compareTo(ziel.iban) < 0 ? this : ziel;
+        Konto zweites = erstes == this ? ziel : this;
+        long sequenz = 0;
+        erstes.lock.lock();
+        try {
+            zweites.lock.lock();
+            try {
+                pruefeDeckung(betrag, BankMetriken.Operation.TRANSFER);
+                Math.addExact(ziel.saldo, betrag);
+                long jetzt = System.currentTimeMillis();
+                if (debitregeln != null) debitregeln.pruefe(jetzt, betrag); // nur die Quelle wird belastet
+                if (journal != null) sequenz = journal.transfer(iban, ziel.iban, betrag);
+                saldo -= betrag;      // Zustand Quelle ändert sich
+                ziel.saldo += betrag; // Zustand Ziel ändert sich, Wert wird übergeben
+                if (verlauf != null) verlauf.erfasse(jetzt, -betrag, ziel.index);
+                if (ziel.verlauf != null) ziel.verlauf.erfasse(jetzt, betrag, index);
+                if (debitregeln != null) debitregeln.erfasse(jetzt, betrag);
+            } finally {
+                zweites.lock.unlock();
+            }
+        } finally {
+            erstes.lock.unlock();
+        }
+        if (journal != null) journal.warteAufCommit(sequenz);
+    }
+
+    // --- Für Sammelbuchungen der Bank: mehrere Konten werden von aussen in IBAN-Reihenfolge gesperrt ---
+
+    void sperren() {
+        lock.lock();
+    }
+
+    void entsperren() {
+        lock.unlock();
+    }
+
+    /** Saldo lesen, während das Konto bereits mit sperren() gesperrt ist. */
+    long saldoGesperrt() {
+        return saldo;
+    }
+
+    /** Bucht eine bereits geprüfte Veränderung, während das Konto mit sperren() gesperrt ist. */
+    void bucheGesperrt(long delta) {
+        bucheGesperrt(delta, Kontoverlauf.SAMMELBUCHUNG);
+    }
+
+    /** Wie bucheGesperrt(delta), mit eigenem Gegenkonto im Verlauf (z.B. Kontoverlauf.ZINS). */
+    void bucheGesperrt(long delta, int gegenkonto) {
+        saldo += delta;
+        if (verlauf != null) verlauf.erfasse(System.currentTimeMillis(), delta, gegenkonto);
+    }
+
+    /** Nur für das Nachspielen des Journals: bucht ohne Prüfung und ohne neuen Journal-Eintrag. */
+    void wiederherstellen(long delta) {
+        lock.lock();
+        try {
+            saldo += delta;
+            if (verlauf != null) verlauf.verschiebeStartSaldo(delta);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Liefert alle (noch gehaltenen) Buchungen mit {@code vonMillis <= Zeitpunkt < bisMillis} inkl. Anfangssaldo.
+     * Das Konto ist nur für das Kopieren der betroffenen Spaltenabschnitte gesperrt.
+     */
+    public Kontoauszug auszug(long vonMillis, long bisMillis) {
+        if (bisMillis < vonMillis) throw new IllegalArgumentException("Ende liegt vor dem Anfang.");
+        lock.lock();
+        try {
+            if (verlauf == null) throw new IllegalStateException("Für dieses Konto wird kein Verlauf geführt.");
+            return verlauf.auszug(iban, vonMillis, bisMillis, saldo);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Anzahl der im Verlauf gehaltenen Buchungen (0 ohne Verlauf). */
+    public int getAnzahlBuchungen() {
+        lock.lock();
+        try {
+            return verlauf != null ? verlauf.anzahl() : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void pruefeDeckung(long betrag, BankMetriken.Operation op) {
+        if (betrag > saldo) {
+            BankMetriken.ungedeckt(op);
+            throw new IllegalStateException("Nicht genügend Deckung.");
+        }
     }
 
-    private void pruefePositivenBetrag(double betrag) {
+    private void pruefePositivenBetrag(long betrag) {
         if (betrag <= 0) throw new IllegalArgumentException("Betrag muss > 0 sein.");
     }
 
     @Override
     public String toString() {
-        return "%s | %s | Saldo: %.2f CHF".formatted(iban, inhaber.getName(), saldo);
+        return "%s | %s | Saldo: %s CHF".formatted(iban, inhaber.getName(), Betrag.formatiere(getSaldoRappen()));
     }
 }
@@ -0,0 +1,56 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Misst, wie gut das Eröffnen von Konten über mehrere Threads skaliert.
+ * - Läuft nacheinander mit 1, 2, 4, ... Threads bis zur Anzahl Kerne.
+ * - Prüft, dass keine IBAN doppelt vergeben wurde und alle Prüfziffern stimmen.
+ *
+ * Aufruf: java KontoEroeffnungBenchmark [kontenGesamt]
+ */
+public class KontoEroeffnungBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int gesamt = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int kerne = Runtime.getRuntime().availableProcessors();
+
+        for (int threads = 1; threads <= kerne; threads *= 2) {
+            Bank bank = new Bank("Benchmark Bank");
+            int proThread = gesamt / threads;
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> worker = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread th = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < proThread; i++) {
+                        bank.kontoEroeffnenRappen(bank.neuerKunde("Kunde"), 0);
+                    }
+                });
+                worker.add(th);
+                th.start();
+            }
+            long t0 = System.nanoTime();
+            start.countDown();
+            for (Thread th : worker) th.join();
+            long dauer = System.nanoTime() - t0;
+
+            Set<String> ibans = new HashSet<>();
+            boolean ok = true;
+            for (Konto k : bank.alleKonten()) {
+                ok &= ibans.add(k.getIban()) && NummernGenerator.istGueltigeIban(k.getIban());
+            }
+            ok &= ibans.size() == proThread * threads;
+            System.out.printf("%2d Threads: %d Konten in %.1f ms → %.0f Eröffnungen/s, %s%n",
+                    threads, ibans.size(), dauer / 1e6, ibans.size() / (dauer / 1e9),
+                    ok ? "IBANs eindeutig und gültig" : "FEHLER");
+            if (!ok) System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Schreibt Konten als Text, CSV oder JSON in einen Writer, ein Konto nach dem anderen.
+ * - Es wird nie die ganze Liste im Speicher aufgebaut; ein einziger StringBuilder wird
+ *   für alle Zeilen wiederverwendet (kein String.format pro Konto).
+ * - Reihenfolge und Auswahl bestimmt der Aufrufer (siehe Bank.exportiere).
+ */
+public class KontoExport {
+
+    public enum Format { TEXT, CSV, JSON }
+
+    private final Writer out;
+    private final Format format;
+    private final StringBuilder zeile = new StringBuilder(128);
+    private long anzahl;
+
+    public KontoExport(Writer out, Format format) {
+        if (out == null) throw new IllegalArgumentException("Writer darf nicht null sein.");
+        if (format == null) throw new IllegalArgumentException("Format darf nicht null sein.");
+        this.out = out;
+        this.format = format;
+    }
+
+    /** Schreibt Kopfzeile (CSV) bzw. öffnende Klammer (JSON). */
+    public void beginne() throws IOException {
+        switch (format) {
+            case CSV -> out.write("iban,kundennummer,name,saldo\n");
+            case JSON -> out.write("[");
+            case TEXT -> { }
+        }
+    }
+
+    public void schreibe(Konto k) throws IOException {
+        long saldo = k.getSaldoRappen();
+        Kunde inhaber = k.getInhaber();
+        zeile.setLength(0);
+        switch (format) {
+            case TEXT -> {
+                zeile.append(k.getIban()).append(" | ").append(inhaber.getName()).append(" | Saldo: ");
+                Betrag.formatiere(zeile, saldo).append(" CHF\n");
+            }
+            case CSV -> {
+                zeile.append(k.getIban()).append(',').append(inhaber.getKundennummer()).append(',');
+                csvText(inhaber.getName());
+                zeile.append(',');
+                Betrag.formatiere(zeile, saldo).append('\n');
+            }
+            case JSON -> {
+                if (anzahl > 0) zeile.append(',');
+                zeile.append("\n  {\"iban\":\"").append(k.getIban())
+                        .append("\",\"kundennummer\":\"").append(inhaber.getKundennummer())
+                        .append("\",\"name\":");
+                jsonText(inhaber.getName());
+                zeile.append(",\"saldo\":");
+                Betrag.formatiere(zeile, saldo).append('}');
+            }
+        }
+        out.append(zeile);
+        anzahl++;
+    }
+
+    /** Schliesst das JSON-Array und leert den Writer (der Writer selbst bleibt offen). */
+    public void beende() throws IOException {
+        if (format == Format.JSON) out.write(anzahl > 0 ? "\n]\n" : "]\n");
+        out.flush();
+    }
+
+    public long getAnzahl() {
+        return anzahl;
+    }
+
+    private void csvText(String s) {
+        boolean quote = s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0;
+        if (!quote) {
+            zeile.append(s);
+            return;
+        }
+        zeile.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') zeile.append('"');
+            zeile.append(c);
+        }
+        zeile.append('"');
+    }
+
+    private void jsonText(String s) {
+        zeile.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> zeile.append("\\\"");
+                case '\\' -> zeile.append("\\\\");
+                case '\n' -> zeile.append("\\n");
+                case '\r' -> zeile.append("\\r");
+                case '\t' -> zeile.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        zeile.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        zeile.append(c);
+                    }
+                }
+            }
+        }
+        zeile.append('"');
+    }
+}
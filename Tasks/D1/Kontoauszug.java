@@ -0,0 +1,112 @@
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Unveränderlicher Auszug aus einem Kontoverlauf für einen Zeitbereich.
+ * - Enthält die Buchungen als Kopie der Spalten, damit das Konto sofort wieder entsperrt werden kann.
+ * - Der laufende Saldo nach jeder Buchung wird beim Erstellen einmal aufsummiert und als eigene
+ *   Spalte gehalten, damit zeilenweises Lesen (getSaldoNach) O(1) pro Zeile bleibt.
+ */
+public class Kontoauszug {
+    private static final DateTimeFormatter ZEITFORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final String iban;
+    private final long von;
+    private final long bis;
+    private final long anfangsSaldo;
+    private final long[] zeit;
+    private final long[] betrag;
+    private final int[] gegenkonto;
+    private final long[] saldoNach;
+
+    Kontoauszug(String iban, long von, long bis, long anfangsSaldo, long[] zeit, long[] betrag, int[] gegenkonto) {
+        this.iban = iban;
+        this.von = von;
+        this.bis = bis;
+        this.anfangsSaldo = anfangsSaldo;
+        this.zeit = zeit;
+        this.betrag = betrag;
+        this.gegenkonto = gegenkonto;
+        this.saldoNach = new long[betrag.length];
+        long saldo = anfangsSaldo;
+        for (int i = 0; i < betrag.length; i++) {
+            saldo += betrag[i];
+            saldoNach[i] = saldo;
+        }
+    }
+
+    public String getIban() {
+        return iban;
+    }
+
+    /** Saldo vor der ersten Buchung im Bereich (Rappen). */
+    public long getAnfangsSaldo() {
+        return anfangsSaldo;
+    }
+
+    /** Saldo nach der letzten Buchung im Bereich (Rappen). */
+    public long getEndSaldo() {
+        return saldoNach.length == 0 ? anfangsSaldo : saldoNach[saldoNach.length - 1];
+    }
+
+    public int anzahl() {
+        return zeit.length;
+    }
+
+    /** Zeitpunkt in Millisekunden seit 1970. */
+    public long getZeitpunkt(int i) {
+        return zeit[i];
+    }
+
+    /** Betrag in Rappen, positiv = Gutschrift, negativ = Belastung. */
+    public long getBetrag(int i) {
+        return betrag[i];
+    }
+
+    /** Index des Gegenkontos in der Bank, oder Kontoverlauf.EXTERN / SAMMELBUCHUNG / ZINS. */
+    public int getGegenkonto(int i) {
+        return gegenkonto[i];
+    }
+
+    /** Laufender Saldo nach Buchung i (Rappen). */
+    public long getSaldoNach(int i) {
+        return saldoNach[i];
+    }
+
+    /**
+     * Schreibt den Auszug als Text, eine Zeile pro Buchung mit laufendem Saldo.
+     * Gegenkonten werden über die Bank in IBANs übersetzt.
+     */
+    public void schreibe(Appendable out, Bank bank) throws IOException {
+        StringBuilder zeile = new StringBuilder(96);
+        zeile.append("Kontoauszug ").append(iban).append(" | Anfangssaldo: ");
+        Betrag.formatiere(zeile, anfangsSaldo).append(" CHF\n");
+        out.append(zeile);
+        for (int i = 0; i < zeit.length; i++) {
+            zeile.setLength(0);
+            ZEITFORMAT.formatTo(Instant.ofEpochMilli(zeit[i]), zeile);
+            zeile.append(" | ");
+            if (betrag[i] > 0) zeile.append('+');
+            Betrag.formatiere(zeile, betrag[i]).append(" | ");
+            zeile.append(gegenkontoText(gegenkonto[i], bank)).append(" | Saldo: ");
+            Betrag.formatiere(zeile, saldoNach[i]).append(" CHF\n");
+            out.append(zeile);
+        }
+    }
+
+    private static String gegenkontoText(int index, Bank bank) {
+        if (index == Kontoverlauf.EXTERN) return "Bar/Extern";
+        if (index == Kontoverlauf.SAMMELBUCHUNG) return "Sammelbuchung";
+        if (index == Kontoverlauf.ZINS) return "Zins/Gebühr";
+        Konto k = bank.kontoMitIndex(index);
+        return k == null ? "?" : k.getIban();
+    }
+
+    @Override
+    public String toString() {
+        return "Kontoauszug %s (%d Buchungen, %d–%d)".formatted(iban, anzahl(), von, bis);
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.Arrays;
+
+/**
+ * Buchungsverlauf eines Kontos, spaltenweise in primitiven Arrays gespeichert
+ * (Zeitpunkt, Betrag, Gegenkonto) statt einem Objekt pro Buchung.
+ * - Pro Buchung 20 Bytes, keine Objekte für den GC; die Arrays wachsen durch Verdoppeln.
+ * - Zeitpunkte sind pro Konto monoton steigend → Zeitbereiche per binärer Suche.
+ * - Der laufende Saldo wird nicht gespeichert, sondern aus Startsaldo bzw. aktuellem Saldo
+ *   und den Beträgen rekonstruiert.
+ * - Hält höchstens maxBuchungen Buchungen: ist der Verlauf voll, fällt die ältere Hälfte weg und wird
+ *   in den Startsaldo eingerechnet (amortisiert O(1) pro Buchung, begrenzter Speicher pro Konto).
+ * - Nicht threadsicher: wird nur unter dem Lock des zugehörigen Kontos verwendet.
+ * - Liegt nur im Speicher; nach einem Neustart beginnt der Verlauf beim geladenen Saldo.
+ * - Nur für Konten einer Bank mit eingeschaltetem Verlauf (Bank.setVerlauf).
+ */
+public final class Kontoverlauf {
+    /** Gegenkonto bei Ein- und Auszahlungen (kein Konto dieser Bank). */
+    public static final int EXTERN = -1;
+    /** Gegenkonto bei Sammelbuchungen (mehrere Konten). */
+    public static final int SAMMELBUCHUNG = -2;
+    /** Gegenkonto bei Zinsen und Gebühren aus einem Zinslauf. */
+    public static final int ZINS = -3;
+
+    private long startSaldo;
+    private final int maxBuchungen;
+    private static final long[] LEER = new long[0];
+    private static final int[] LEER_INT = new int[0];
+
+    // erst bei der ersten Buchung angelegt: beim Laden vieler Konten ohne Verlauf keine Arrays pro Konto
+    private long[] zeit = LEER;
+    private long[] betrag = LEER;
+    private int[] gegenkonto = LEER_INT;
+    private int anzahl;
+
+    Kontoverlauf(long startSaldo, int maxBuchungen) {
+        if (maxBuchungen < 2) throw new IllegalArgumentException("Ein Verlauf muss mindestens 2 Buchungen halten.");
+        this.startSaldo = startSaldo;
+        this.maxBuchungen = maxBuchungen;
+    }
+
+    void erfasse(long zeitpunkt, long delta, int gegenkontoIndex) {
+        if (anzahl == maxBuchungen) vergiss(anzahl / 2);
+        if (anzahl == zeit.length) {
+            int neu = Math.min(maxBuchungen, Math.max(4, anzahl * 2));
+            zeit = Arrays.copyOf(zeit, neu);
+            betrag = Arrays.copyOf(betrag, neu);
+            gegenkonto = Arrays.copyOf(gegenkonto, neu);
+        }
+        // monoton halten, auch wenn die Systemuhr zurückspringt
+        zeit[anzahl] = anzahl > 0 ? Math.max(zeitpunkt, zeit[anzahl - 1]) : zeitpunkt;
+        betrag[anzahl] = delta;
+        gegenkonto[anzahl] = gegenkontoIndex;
+        anzahl++;
+    }
+
+    /** Entfernt die ältesten n Buchungen; der Startsaldo gilt danach vor der ersten verbliebenen. */
+    private void vergiss(int n) {
+        for (int i = 0; i < n; i++) startSaldo += betrag[i];
+        anzahl -= n;
+        System.arraycopy(zeit, n, zeit, 0, anzahl);
+        System.arraycopy(betrag, n, betrag, 0, anzahl);
+        System.arraycopy(gegenkonto, n, gegenkonto, 0, anzahl);
+    }
+
+    /** Beim Nachspielen des Journals gibt es keine Zeitpunkte → nur den Startsaldo anpassen. */
+    void verschiebeStartSaldo(long delta) {
+        startSaldo += delta;
+    }
+
+    int anzahl() {
+        return anzahl;
+    }
+
+    /**
+     * Kopiert alle Buchungen mit {@code von <= zeitpunkt < bis} in einen Auszug (nur die noch gehaltenen).
+     *
+     * @param aktuellerSaldo Saldo nach der letzten Buchung (für die Rekonstruktion von hinten)
+     */
+    Kontoauszug auszug(String iban, long von, long bis, long aktuellerSaldo) {
+        int a = ersterIndexAb(von);
+        int b = Math.max(a, ersterIndexAb(bis));
+        // Saldo vor dem Bereich: von der kürzeren Seite her aufsummieren
+        long saldoVorher;
+        if (a <= anzahl - a) {
+            saldoVorher = startSaldo;
+            for (int i = 0; i < a; i++) saldoVorher += betrag[i];
+        } else {
+            saldoVorher = aktuellerSaldo;
+            for (int i = a; i < anzahl; i++) saldoVorher -= betrag[i];
+        }
+        return new Kontoauszug(iban, von, bis, saldoVorher,
+                Arrays.copyOfRange(zeit, a, b), Arrays.copyOfRange(betrag, a, b), Arrays.copyOfRange(gegenkonto, a, b));
+    }
+
+    private int ersterIndexAb(long zeitpunkt) {
+        int lo = 0;
+        int hi = anzahl;
+        while (lo < hi) {
+            int mitte = (lo + hi) >>> 1;
+            if (zeit[mitte] < zeitpunkt) lo = mitte + 1; else hi = mitte;
+        }
+        return lo;
+    }
+}
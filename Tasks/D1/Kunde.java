@@ -1,6 +1,6 @@
 public class Kunde {
     private final String name;
-    private final String kundennummer; // z.B. K0001
+    private final String kundennummer; // z.B. K00000018 (mit Prüfziffer)
 
     public Kunde(String name, String kundennummer) {
         if (name == null || name.isBlank()) throw new IllegalArgumentException("Name darf nicht leer sein.");
@@ -0,0 +1,90 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Vergleicht die Sekundärindizes der Bank mit einer linearen Suche über alleKonten().
+ * - "Konten eines Kunden": kontenVonKunde(...) vs. Filtern aller Konten nach Kundennummer
+ * - "Namenssuche": sucheKunden(präfix, ...) vs. Filtern aller Konten nach Namensanfang
+ *
+ * Aufruf: java KundenIndexBenchmark [konten] [abfragen]
+ */
+public class KundenIndexBenchmark {
+    private static final String[] VORNAMEN = { "Anna", "Beat", "Carla", "Dario", "Elena", "Fabio", "Gina", "Hans",
+            "Ines", "Jonas", "Karin", "Luca", "Mia", "Nico", "Olga", "Peter", "Rita", "Sven", "Tina", "Urs" };
+    private static final String[] NACHNAMEN = { "Meier", "Müller", "Schmid", "Keller", "Weber", "Huber", "Frei",
+            "Baumann", "Graf", "Brunner", "Fischer", "Moser", "Steiner", "Wyss", "Gerber", "Roth", "Bühler", "Kunz" };
+
+    public static void main(String[] args) {
+        int anzahlKonten = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int abfragen = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Random rnd = new Random(42);
+        Bank bank = new Bank("Benchmark Bank");
+        List<Kunde> kunden = new ArrayList<>();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < anzahlKonten; i++) {
+            // im Schnitt zwei Konten pro Kunde
+            Kunde kunde = (i % 2 == 1) ? kunden.get(rnd.nextInt(kunden.size()))
+                    : bank.neuerKunde(NACHNAMEN[rnd.nextInt(NACHNAMEN.length)] + " "
+                            + VORNAMEN[rnd.nextInt(VORNAMEN.length)] + " " + i);
+            if (i % 2 == 0) kunden.add(kunde);
+            bank.kontoEroeffnenRappen(kunde, 100_00);
+        }
+        System.out.printf("%d Konten / %d Kunden aufgebaut in %.0f ms%n",
+                anzahlKonten, kunden.size(), (System.nanoTime() - t0) / 1e6);
+
+        long treffer = 0;
+        for (int runde = 0; runde < 2; runde++) { // Runde 0 = Aufwärmen
+            long tIndex = 0;
+            long tScan = 0;
+            long tPraefixIndex = 0;
+            long tPraefixScan = 0;
+            for (int q = 0; q < abfragen; q++) {
+                String knr = kunden.get(rnd.nextInt(kunden.size())).getKundennummer();
+                long s = System.nanoTime();
+                treffer += bank.kontenVonKunde(knr).size();
+                tIndex += System.nanoTime() - s;
+
+                s = System.nanoTime();
+                treffer += scanKunde(bank, knr);
+                tScan += System.nanoTime() - s;
+
+                String praefix = NACHNAMEN[rnd.nextInt(NACHNAMEN.length)] + " " + VORNAMEN[rnd.nextInt(VORNAMEN.length)] + " 1";
+                s = System.nanoTime();
+                treffer += bank.sucheKunden(praefix, 20).size();
+                tPraefixIndex += System.nanoTime() - s;
+
+                s = System.nanoTime();
+                treffer += scanPraefix(bank, praefix.toLowerCase(), 20);
+                tPraefixScan += System.nanoTime() - s;
+            }
+            if (runde == 1) {
+                System.out.printf("Konten eines Kunden: Index %.2f µs, Scan %.2f µs pro Abfrage (%.0fx)%n",
+                        tIndex / 1e3 / abfragen, tScan / 1e3 / abfragen, tScan / (double) tIndex);
+                System.out.printf("Namenspräfix (20 Treffer): Index %.2f µs, Scan %.2f µs pro Abfrage (%.0fx)%n",
+                        tPraefixIndex / 1e3 / abfragen, tPraefixScan / 1e3 / abfragen, tPraefixScan / (double) tPraefixIndex);
+            }
+        }
+        System.out.println("(Treffer gesamt: " + treffer + ")");
+    }
+
+    private static int scanKunde(Bank bank, String knr) {
+        int n = 0;
+        for (Konto k : bank.alleKonten()) {
+            if (k.getInhaber().getKundennummer().equals(knr)) n++;
+        }
+        return n;
+    }
+
+    /** Linearer Scan muss alle Konten ansehen, da sie nach IBAN und nicht nach Name sortiert sind. */
+    private static int scanPraefix(Bank bank, String praefix, int max) {
+        List<Kunde> gefunden = new ArrayList<>();
+        for (Konto k : bank.alleKonten()) {
+            Kunde kunde = k.getInhaber();
+            if (kunde.getName().toLowerCase().startsWith(praefix) && !gefunden.contains(kunde)) gefunden.add(kunde);
+        }
+        gefunden.sort((a, b) -> a.getName().compareToIgnoreCase(b.getName()));
+        return Math.min(max, gefunden.size());
+    }
+}
@@ -0,0 +1,167 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Erzeugt fortlaufende Nummern für Konten und Kunden, auch aus vielen Threads gleichzeitig.
+ * - Jeder Thread reserviert sich mit einer einzigen atomaren Operation einen Block von Nummern
+ *   und vergibt diese danach ohne Synchronisation → skaliert über alle Kerne, keine Duplikate.
+ *   Nummern sind dadurch eindeutig, aber nicht lückenlos.
+ * - IBANs sind echte Schweizer IBANs (CH, Prüfziffern nach ISO 7064 Mod 97-10, 5-stellige
+ *   Bankenclearing-Nummer, 12-stellige Kontonummer), gruppiert mit '-' wie bisher.
+ * - Kundennummern haben die Form K + mind. 7 Ziffern + Luhn-Prüfziffer (z.B. K00000018).
+ * - Beim Formatieren wird ausser dem fertigen String nichts alloziert (Puffer pro Thread).
+ */
+public final class NummernGenerator {
+    private static final int BLOCK_GROESSE = 1024;
+    private static final String CLEARING = "00000";
+    private static final long MAX_KONTONUMMER = 999_999_999_999L; // 12 Stellen
+    private static final int KUNDEN_STELLEN = 7;
+
+    private static final ThreadLocal<char[]> PUFFER = ThreadLocal.withInitial(() -> new char[64]);
+
+    private final AtomicLong naechsterBlock;
+    private final ThreadLocal<long[]> bereich = ThreadLocal.withInitial(() -> new long[2]); // [nächste, ende)
+
+    public NummernGenerator(long ersteNummer) {
+        if (ersteNummer < 1) throw new IllegalArgumentException("Erste Nummer muss >= 1 sein.");
+        naechsterBlock = new AtomicLong(ersteNummer);
+    }
+
+    /** Liefert die nächste freie Nummer (threadsicher, meist ohne jede Synchronisation). */
+    public long naechste() {
+        long[] b = bereich.get();
+        if (b[0] == b[1]) {
+            long start = naechsterBlock.getAndAdd(BLOCK_GROESSE);
+            b[0] = start;
+            b[1] = start + BLOCK_GROESSE;
+        }
+        return b[0]++;
+    }
+
+    /**
+     * Stellt sicher, dass keine Nummer kleiner als {@code nummer} mehr vergeben wird
+     * (nach dem Laden gespeicherter Konten). Nur aufrufen, bevor Nummern vergeben wurden.
+     */
+    public void mindestens(long nummer) {
+        naechsterBlock.accumulateAndGet(nummer, Math::max);
+    }
+
+    // --- IBAN ---
+
+    /** Formatiert eine Kontonummer als IBAN, z.B. 1 → "CH09-0000-0000-0000-0000-1". */
+    public static String iban(long kontonummer) {
+        if (kontonummer < 0 || kontonummer > MAX_KONTONUMMER) throw new IllegalStateException("Kontonummern erschöpft.");
+        char[] bban = PUFFER.get();
+        // BBAN = Clearing (5) + Kontonummer (12) ab Position 4, davor kommen "CH" + Prüfziffern
+        for (int i = 0; i < 5; i++) bban[4 + i] = CLEARING.charAt(i);
+        long rest = kontonummer;
+        for (int i = 20; i >= 9; i--) {
+            bban[i] = (char) ('0' + rest % 10);
+            rest /= 10;
+        }
+        int pruefziffer = 98 - mod97(bban, 4, 21);
+        bban[0] = 'C';
+        bban[1] = 'H';
+        bban[2] = (char) ('0' + pruefziffer / 10);
+        bban[3] = (char) ('0' + pruefziffer % 10);
+        return gruppiert(bban, 21);
+    }
+
+    /** Prüft Form und Prüfziffern einer (mit '-' oder ' ' gruppierten) Schweizer IBAN. */
+    public static boolean istGueltigeIban(String iban) {
+        if (iban == null) return false;
+        char[] z = PUFFER.get();
+        int n = 0;
+        for (int i = 0; i < iban.length(); i++) {
+            char c = iban.charAt(i);
+            if (c == '-' || c == ' ') continue;
+            if (n == 21) return false;
+            z[n++] = c;
+        }
+        if (n != 21 || z[0] != 'C' || z[1] != 'H') return false;
+        for (int i = 2; i < 21; i++) if (z[i] < '0' || z[i] > '9') return false;
+        int erwartet = (z[2] - '0') * 10 + (z[3] - '0');
+        return erwartet == 98 - mod97(z, 4, 21);
+    }
+
+    /** Liest die Kontonummer (letzte 12 Ziffern) aus einer IBAN; 0 wenn keine erkennbar ist. */
+    public static long kontonummerAus(String iban) {
+        long wert = 0;
+        long faktor = 1;
+        int stellen = 0;
+        for (int i = iban.length() - 1; i >= 0 && stellen < 12; i--) {
+            char c = iban.charAt(i);
+            if (c == '-' || c == ' ') continue;
+            if (c < '0' || c > '9') break;
+            wert += (c - '0') * faktor;
+            faktor *= 10;
+            stellen++;
+        }
+        return wert;
+    }
+
+    /**
+     * Rest modulo 97 von BBAN + "CH00" (C=12, H=17), Ziffer für Ziffer ohne BigInteger.
+     */
+    private static int mod97(char[] z, int von, int bis) {
+        int r = 0;
+        for (int i = von; i < bis; i++) r = (r * 10 + (z[i] - '0')) % 97;
+        r = (r * 100 + 12) % 97;
+        r = (r * 100 + 17) % 97;
+        return (r * 100) % 97;
+    }
+
+    /** Gruppiert z[0..laenge) in 4er-Blöcke, als Zwischenablage dient die hintere Hälfte von z. */
+    private static String gruppiert(char[] z, int laenge) {
+        int j = 32;
+        for (int i = 0; i < laenge; i++) {
+            if (i > 0 && i % 4 == 0) z[j++] = '-';
+            z[j++] = z[i];
+        }
+        return new String(z, 32, j - 32);
+    }
+
+    // --- Kundennummer ---
+
+    /** Formatiert eine Kundennummer, z.B. 1 → "K00000018" (letzte Ziffer = Luhn-Prüfziffer). */
+    public static String kundennummer(long nummer) {
+        if (nummer < 0) throw new IllegalArgumentException("Kundennummer darf nicht negativ sein.");
+        char[] z = PUFFER.get();
+        int stellen = KUNDEN_STELLEN;
+        for (long r = nummer / 10_000_000L; r > 0; r /= 10) stellen++;
+        z[0] = 'K';
+        long rest = nummer;
+        for (int i = stellen; i >= 1; i--) {
+            z[i] = (char) ('0' + rest % 10);
+            rest /= 10;
+        }
+        z[stellen + 1] = (char) ('0' + luhnPruefziffer(z, 1, stellen + 1));
+        return new String(z, 0, stellen + 2);
+    }
+
+    /** Liest die laufende Nummer aus einer Kundennummer (ohne Prüfziffer); 0 wenn keine erkennbar ist. */
+    public static long kundenNummerAus(String kundennummer) {
+        int ende = kundennummer.length() - 1; // letzte Ziffer = Prüfziffer
+        long wert = 0;
+        for (int i = 1; i < ende; i++) {
+            char c = kundennummer.charAt(i);
+            if (c < '0' || c > '9') return 0;
+            wert = wert * 10 + (c - '0');
+        }
+        return wert;
+    }
+
+    private static int luhnPruefziffer(char[] z, int von, int bis) {
+        int summe = 0;
+        boolean doppelt = true; // von rechts gesehen wird jede zweite Ziffer verdoppelt, beginnend bei der letzten
+        for (int i = bis - 1; i >= von; i--) {
+            int d = z[i] - '0';
+            if (doppelt) {
+                d *= 2;
+                if (d > 9) d -= 9;
+            }
+            summe += d;
+            doppelt = !doppelt;
+        }
+        return (10 - summe % 10) % 10;
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Unveränderliche Liste von Debitregeln, die für alle Konten einer Bank gilt (Bank.setRegelwerk).
+ * - Jedes Konto erhält beim Zuweisen einen eigenen Debitverlauf mit passend grossen Ringen.
+ * - Die Regeln werden in der angegebenen Reihenfolge geprüft; die erste verletzte lehnt ab.
+ */
+public final class Regelwerk {
+    private final Debitregel[] regeln;
+    private final int anzahlZeitpunkte;
+
+    public Regelwerk(Debitregel... regeln) {
+        if (regeln == null) throw new IllegalArgumentException("Regeln dürfen nicht null sein.");
+        this.regeln = regeln.clone();
+        int n = 0;
+        for (Debitregel r : this.regeln) {
+            if (r == null) throw new IllegalArgumentException("Regel darf nicht null sein.");
+            n = Math.max(n, r.getAnzahlZeitpunkte());
+        }
+        this.anzahlZeitpunkte = n;
+    }
+
+    Debitverlauf neuerVerlauf() {
+        return new Debitverlauf(this, anzahlZeitpunkte);
+    }
+
+    /** Erste Regel, die die Belastung ablehnt, oder null. */
+    Debitregel ersteVerletzte(Debitverlauf verlauf, long jetztMillis, long betragRappen) {
+        for (Debitregel r : regeln) {
+            if (!r.erlaubt(verlauf, jetztMillis, betragRappen)) return r;
+        }
+        return null;
+    }
+
+    public int getAnzahlRegeln() {
+        return regeln.length;
+    }
+}
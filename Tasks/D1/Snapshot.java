@@ -0,0 +1,236 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Binärer Snapshot aller Konten einer Bank (Stand zu einem Zeitpunkt ohne laufende Buchungen).
+ * - Wird zuerst in eine temporäre Datei geschrieben, per fsync gesichert und dann atomar umbenannt,
+ *   so dass immer entweder der alte oder der neue Snapshot vollständig vorhanden ist.
+ * - Die Generation verbindet Snapshot und Journal (siehe Bank.oeffnen).
+ * - Kompaktes Format mit festen Datensätzen, geschrieben und gelesen mit FileChannel über einen
+ *   direkten Puffer (keine Streams, keine Längenpräfixe pro Feld). Bewusst ohne Memory-Mapping:
+ *   ein Mapping bleibt bis zur Garbage Collection bestehen, und unter Windows lässt sich eine
+ *   gemappte Datei nicht ersetzen (Snapshot neu schreiben beim Öffnen der Bank).
+ *     Kopf:    MAGIC, Version, Generation, Anzahl Kunden, Anzahl Konten, Länge Namensbereich
+ *     Kunden:  je laufende Kundennummer (long), Offset und Länge des Namens im Namensbereich (int, int)
+ *     Namen:   UTF-8, ohne Trennzeichen
+ *     Konten:  je Kontonummer (long), Index des Kunden (int), Saldo (long) = 20 Bytes
+ *   IBAN und Kundennummer werden nicht als Text gespeichert, sondern aus den Nummern neu gebildet
+ *   (NummernGenerator), jeder Kunde steht nur einmal in der Datei. Werte, die der NummernGenerator
+ *   nicht genau so erzeugt hätte, lehnt schreiben mit einer IOException ab, statt sie zu verändern.
+ * - Snapshots im alten Format ("SNAP", alles als Text) werden weiterhin gelesen.
+ */
+public final class Snapshot {
+    private static final int MAGIC_ALT = 0x534E4150; // "SNAP"
+    private static final int MAGIC = 0x534E5032;     // "SNP2"
+    private static final int VERSION = 1;
+    private static final int KOPF = 4 + 4 + 8 + 4 + 4 + 8;
+    private static final int KUNDE = 8 + 4 + 4;
+    private static final int KONTO = 8 + 4 + 8;
+    private static final int PUFFER = 1 << 20; // ein direkter Puffer pro Aufruf, für die ganze Datei wiederverwendet
+
+    /**
+     * Empfängt die Konten beim Laden; Konten desselben Kunden erhalten dasselbe Kunde-Objekt und denselben
+     * Kundenindex (0, 1, 2, ... in der Reihenfolge der Datei), damit der Leser ohne Hash-Suche gruppieren kann.
+     */
+    interface Leser {
+        void konto(String iban, Kunde inhaber, int kundenIndex, long saldo);
+    }
+
+    private Snapshot() {
+    }
+
+    public static void schreiben(Path datei, long generation, Collection<Konto> alleKonten) throws IOException {
+        Konto[] konten = alleKonten.toArray(new Konto[0]); // ein Durchlauf über die (evtl. gleichzeitig veränderte) Map
+        int anzahlKonten = konten.length;
+        // Kunden durchnummerieren und Namen einmal kodieren
+        Map<Kunde, Integer> kundenIndex = new IdentityHashMap<>(); // die Bank verwendet pro Kunde ein Objekt
+        int[] kundeVonKonto = new int[anzahlKonten];
+        long[] kundenNummern = new long[16];
+        byte[][] namen = new byte[16][];
+        int anzahlKunden = 0;
+        long laengeNamen = 0;
+        for (int i = 0; i < anzahlKonten; i++) {
+            Kunde kunde = konten[i].getInhaber();
+            Integer index = kundenIndex.putIfAbsent(kunde, anzahlKunden);
+            kundeVonKonto[i] = index != null ? index : anzahlKunden;
+            if (index == null) {
+                if (anzahlKunden == namen.length) {
+                    kundenNummern = Arrays.copyOf(kundenNummern, anzahlKunden * 2);
+                    namen = Arrays.copyOf(namen, anzahlKunden * 2);
+                }
+                kundenNummern[anzahlKunden] = kundenNummer(kunde.getKundennummer());
+                namen[anzahlKunden] = kunde.getName().getBytes(StandardCharsets.UTF_8);
+                laengeNamen += namen[anzahlKunden].length;
+                anzahlKunden++;
+            }
+        }
+        long anfangKonten = KOPF + (long) anzahlKunden * KUNDE + laengeNamen;
+        if (anfangKonten > Integer.MAX_VALUE) throw new IOException("Zu viele Kunden für einen Snapshot.");
+
+        Path tmp = datei.resolveSibling(datei.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        ByteBuffer puffer = ByteBuffer.allocateDirect(PUFFER);
+        try (FileChannel kanal = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            puffer.putInt(MAGIC).putInt(VERSION).putLong(generation).putInt(anzahlKunden).putInt(anzahlKonten)
+                    .putLong(laengeNamen);
+            int offset = 0;
+            for (int i = 0; i < anzahlKunden; i++) {
+                if (puffer.remaining() < KUNDE) schreibeAus(kanal, puffer);
+                puffer.putLong(kundenNummern[i]).putInt(offset).putInt(namen[i].length);
+                offset += namen[i].length;
+            }
+            for (int i = 0; i < anzahlKunden; i++) {
+                for (int pos = 0; pos < namen[i].length; ) { // ein Name kann länger als der Puffer sein
+                    if (!puffer.hasRemaining()) schreibeAus(kanal, puffer);
+                    int n = Math.min(puffer.remaining(), namen[i].length - pos);
+                    puffer.put(namen[i], pos, n);
+                    pos += n;
+                }
+            }
+            for (int i = 0; i < anzahlKonten; i++) {
+                if (puffer.remaining() < KONTO) schreibeAus(kanal, puffer);
+                puffer.putLong(kontonummer(konten[i].getIban()))
+                        .putInt(kundeVonKonto[i])
+                        .putLong(konten[i].getSaldoRappen());
+            }
+            schreibeAus(kanal, puffer);
+            kanal.force(true);
+        }
+        // kein Mapping offen: das Umbenennen über einen bestehenden Snapshot gelingt auch unter Windows
+        Files.move(tmp, datei, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lädt einen Snapshot.
+     *
+     * @return die Generation des Snapshots, oder 0 wenn noch keiner existiert
+     */
+    public static long lesen(Path datei, Leser leser) throws IOException {
+        if (!Files.exists(datei)) return 0;
+        try (FileChannel kanal = FileChannel.open(datei, StandardOpenOption.READ)) {
+            long groesse = kanal.size();
+            if (groesse < 4) throw new IOException("Keine Snapshot-Datei: " + datei);
+            ByteBuffer puffer = ByteBuffer.allocateDirect(PUFFER);
+            puffer.limit(0);
+            fuelle(kanal, puffer, 4, datei);
+            int magic = puffer.getInt();
+            if (magic == MAGIC_ALT) return lesenAlt(datei, leser);
+            if (magic != MAGIC || groesse < KOPF) throw new IOException("Keine Snapshot-Datei: " + datei);
+            fuelle(kanal, puffer, KOPF - 4, datei);
+            if (puffer.getInt() != VERSION) throw new IOException("Unbekannte Snapshot-Version: " + datei);
+            long generation = puffer.getLong();
+            int anzahlKunden = puffer.getInt();
+            int anzahlKonten = puffer.getInt();
+            long laengeNamen = puffer.getLong();
+            long anfangKonten = KOPF + (long) anzahlKunden * KUNDE + laengeNamen;
+            if (anzahlKunden < 0 || anzahlKonten < 0 || laengeNamen < 0
+                    || groesse != anfangKonten + (long) anzahlKonten * KONTO) {
+                throw new IOException("Snapshot ist beschädigt: " + datei);
+            }
+            if (anfangKonten > Integer.MAX_VALUE) throw new IOException("Zu viele Kunden für einen Snapshot.");
+
+            long[] nummern = new long[anzahlKunden];
+            int[] offsets = new int[anzahlKunden];
+            int[] laengen = new int[anzahlKunden];
+            for (int i = 0; i < anzahlKunden; i++) {
+                fuelle(kanal, puffer, KUNDE, datei);
+                nummern[i] = puffer.getLong();
+                offsets[i] = puffer.getInt();
+                laengen[i] = puffer.getInt();
+                if (offsets[i] < 0 || laengen[i] < 0 || (long) offsets[i] + laengen[i] > laengeNamen) {
+                    throw new IOException("Snapshot ist beschädigt: " + datei);
+                }
+            }
+            byte[] namen = new byte[(int) laengeNamen];
+            for (int pos = 0; pos < namen.length; ) {
+                fuelle(kanal, puffer, 1, datei);
+                int n = Math.min(puffer.remaining(), namen.length - pos);
+                puffer.get(namen, pos, n);
+                pos += n;
+            }
+            Kunde[] kunden = new Kunde[anzahlKunden];
+            for (int i = 0; i < anzahlKunden; i++) {
+                kunden[i] = new Kunde(new String(namen, offsets[i], laengen[i], StandardCharsets.UTF_8),
+                        NummernGenerator.kundennummer(nummern[i]));
+            }
+
+            for (int i = 0; i < anzahlKonten; i++) {
+                fuelle(kanal, puffer, KONTO, datei);
+                long kontonummer = puffer.getLong();
+                int kunde = puffer.getInt();
+                long saldo = puffer.getLong();
+                if (kunde < 0 || kunde >= anzahlKunden) throw new IOException("Snapshot ist beschädigt: " + datei);
+                leser.konto(NummernGenerator.iban(kontonummer), kunden[kunde], kunde, saldo);
+            }
+            return generation;
+        }
+    }
+
+    /** Laufende Nummer einer Kundennummer; nur Nummern, die sich daraus genau so wieder bilden lassen. */
+    private static long kundenNummer(String kundennummer) throws IOException {
+        long nummer = NummernGenerator.kundenNummerAus(kundennummer);
+        if (nummer < 0 || !NummernGenerator.kundennummer(nummer).equals(kundennummer)) { // < 0: übergelaufen
+            throw new IOException("Kundennummer passt nicht ins Snapshot-Format: " + kundennummer);
+        }
+        return nummer;
+    }
+
+    /** Kontonummer einer IBAN; nur IBANs, die sich daraus genau so wieder bilden lassen. */
+    private static long kontonummer(String iban) throws IOException {
+        long nummer = NummernGenerator.kontonummerAus(iban);
+        if (!NummernGenerator.iban(nummer).equals(iban)) {
+            throw new IOException("IBAN passt nicht ins Snapshot-Format: " + iban);
+        }
+        return nummer;
+    }
+
+    /** Schreibt den Inhalt des Puffers in die Datei und leert ihn. */
+    private static void schreibeAus(FileChannel kanal, ByteBuffer puffer) throws IOException {
+        puffer.flip();
+        while (puffer.hasRemaining()) kanal.write(puffer);
+        puffer.clear();
+    }
+
+    /** Sorgt dafür, dass mindestens 'bytes' ungelesene Bytes im Puffer stehen (liest nach, wenn nötig). */
+    private static void fuelle(FileChannel kanal, ByteBuffer puffer, int bytes, Path datei) throws IOException {
+        if (puffer.remaining() >= bytes) return;
+        puffer.compact();
+        while (puffer.position() < bytes) {
+            if (kanal.read(puffer) < 0) throw new IOException("Snapshot ist unvollständig: " + datei);
+        }
+        puffer.flip();
+    }
+
+    /** Altes Format: DataOutputStream mit IBAN, Kundennummer und Name als Text pro Konto. */
+    private static long lesenAlt(Path datei, Leser leser) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(datei), 1 << 16))) {
+            in.readInt();
+            long generation = in.readLong();
+            int anzahl = in.readInt();
+            Map<String, Kunde> kunden = new HashMap<>();
+            Map<Kunde, Integer> kundenIndex = new IdentityHashMap<>();
+            for (int i = 0; i < anzahl; i++) {
+                String iban = in.readUTF();
+                String knr = in.readUTF();
+                String name = in.readUTF();
+                Kunde kunde = kunden.computeIfAbsent(knr, n -> new Kunde(name, n));
+                int index = kundenIndex.computeIfAbsent(kunde, k -> kundenIndex.size());
+                leser.konto(iban, kunde, index, in.readLong());
+            }
+            return generation;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Round-Trip und Startzeit des Snapshots.
+ * - Baut eine Bank mit vielen Konten (im Schnitt zwei pro Kunde) und schreibt sie als Snapshot.
+ * - Lädt ihn wieder (Bank.ladeSnapshot) und vergleicht jedes Konto: IBAN, Kundennummer, Name, Saldo.
+ * - Misst den Start einer persistenten Bank (Bank.oeffnen) aus demselben Snapshot.
+ * - Prüft auch den Namensindex (Präfixsuche) der geladenen Bank, und dass fremde IBANs und Kundennummern
+ *   beim Schreiben abgelehnt statt verändert werden.
+ * Für mehrere Millionen Konten braucht die JVM genug Heap (zwei Banken gleichzeitig), z.B. -Xmx4g.
+ *
+ * Aufruf: java SnapshotBenchmark [konten]
+ */
+public class SnapshotBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int anzahlKonten = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        Random rnd = new Random(7);
+        Bank bank = new Bank("Snapshot Bank");
+        Kunde kunde = null;
+        for (int i = 0; i < anzahlKonten; i++) {
+            if (kunde == null || rnd.nextBoolean()) kunde = bank.neuerKunde("Kunde " + i + (i % 3 == 0 ? " Zürich" : ""));
+            bank.kontoEroeffnenRappen(kunde, rnd.nextInt(1_000_000_00));
+        }
+
+        Path verzeichnis = Files.createTempDirectory("snapshot");
+        Path datei = verzeichnis.resolve("bank.snapshot");
+        long t0 = System.nanoTime();
+        bank.speichereSnapshot(datei);
+        long schreiben = System.nanoTime() - t0;
+        long groesse = Files.size(datei);
+        System.out.printf("%d Konten geschrieben in %.0f ms, %.1f MB (%.1f Bytes pro Konto)%n",
+                anzahlKonten, schreiben / 1e6, groesse / 1e6, groesse / (double) anzahlKonten);
+
+        Bank geladen = null;
+        long ersteZeit = 0;
+        long besteZeit = Long.MAX_VALUE;
+        for (int runde = 0; runde < 3; runde++) { // die erste Runde ist ein kalter Start (JIT)
+            geladen = null;
+            System.gc();
+            t0 = System.nanoTime();
+            geladen = Bank.ladeSnapshot("Geladen", datei);
+            long zeit = System.nanoTime() - t0;
+            if (runde == 0) ersteZeit = zeit;
+            besteZeit = Math.min(besteZeit, zeit);
+        }
+        System.out.printf("Geladen in %.0f ms (erste), %.0f ms (beste von 3) → Round-Trip %s%n",
+                ersteZeit / 1e6, besteZeit / 1e6, vergleiche(bank, geladen));
+
+        geladen = null;
+        System.gc();
+        t0 = System.nanoTime();
+        try (Bank persistent = Bank.oeffnen("Persistent", verzeichnis)) {
+            long start = System.nanoTime() - t0;
+            System.out.printf("Bank.oeffnen (Snapshot laden, leeres Journal): %.0f ms → %s%n",
+                    start / 1e6, vergleiche(bank, persistent));
+            persistent.alleKonten().iterator().next().einzahlenRappen(1); // damit der nächste Start nachspielen muss
+        }
+        System.gc();
+        t0 = System.nanoTime();
+        try (Bank persistent = Bank.oeffnen("Persistent", verzeichnis)) {
+            System.out.printf("Bank.oeffnen nach close(): %.0f ms, %d Konten%n",
+                    (System.nanoTime() - t0) / 1e6, persistent.alleKonten().size());
+        }
+        System.out.println("Fremde IBAN: " + abgelehnt(verzeichnis, Konto.mitRappen("CH00-A", bank.neuerKunde("A"), 0))
+                + ", fremde Kundennummer: " + abgelehnt(verzeichnis, Konto.mitRappen(NummernGenerator.iban(1),
+                        new Kunde("B", "K0001"), 0)));
+        try (Stream<Path> dateien = Files.walk(verzeichnis)) {
+            dateien.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static String abgelehnt(Path verzeichnis, Konto konto) {
+        try {
+            Snapshot.schreiben(verzeichnis.resolve("fremd.snapshot"), 1, List.of(konto));
+            return "FEHLER: geschrieben";
+        } catch (IOException e) {
+            return "abgelehnt";
+        }
+    }
+
+    private static String vergleiche(Bank a, Bank b) {
+        if (a.alleKonten().size() != b.alleKonten().size()) return "FEHLER: Anzahl Konten";
+        Iterator<Konto> ib = b.alleKonten().iterator();
+        for (Konto ka : a.alleKonten()) {
+            Konto kb = ib.next();
+            if (!ka.getIban().equals(kb.getIban()) || ka.getSaldoRappen() != kb.getSaldoRappen()
+                    || !ka.getInhaber().getKundennummer().equals(kb.getInhaber().getKundennummer())
+                    || !ka.getInhaber().getName().equals(kb.getInhaber().getName())) {
+                return "FEHLER bei " + ka.getIban();
+            }
+        }
+        for (Konto k : a.alleKonten()) {
+            if (b.kontenVonKunde(k.getInhaber().getKundennummer()).size()
+                    != a.kontenVonKunde(k.getInhaber().getKundennummer()).size()) {
+                return "FEHLER: Kundenindex " + k.getInhaber().getKundennummer();
+            }
+        }
+        for (String praefix : new String[] { "kunde 12", "kunde 7", "kunde 99" }) {
+            List<String> ka = a.sucheKunden(praefix, 50).stream().map(Kunde::getKundennummer).toList();
+            List<String> kb = b.sucheKunden(praefix, 50).stream().map(Kunde::getKundennummer).toList();
+            if (!ka.equals(kb)) return "FEHLER: Namensindex " + praefix;
+        }
+        return "OK";
+    }
+}
@@ -0,0 +1,88 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Multi-Thread-Stresstest für Konto.transfer(...).
+ * - Viele Threads verschieben gleichzeitig Geld zwischen zufälligen Konten (auch gegenläufig).
+ * - Am Schluss muss die Summe aller Saldi unverändert sein (Geld geht nicht verloren).
+ * - Gibt die erreichten Transfers pro Sekunde aus, mit -Dbank.metriken=true zusätzlich BankMetriken
+ *   (Vergleich mit/ohne zeigt die Kosten der Messung).
+ *
+ * Aufruf: java TransferBenchmark [threads] [konten] [transfersProThread]
+ */
+public class TransferBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int anzahlKonten = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int transfersProThread = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+
+        Bank bank = new Bank("Benchmark Bank");
+        List<Konto> konten = new ArrayList<>();
+        for (int i = 0; i < anzahlKonten; i++) {
+            konten.add(bank.kontoEroeffnenRappen(bank.neuerKunde("Kunde " + i), 1000_00));
+        }
+        long summeVorher = summe(bank);
+
+        // Transfer-Ausgaben würden die Messung dominieren → während des Laufs verwerfen
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> worker = new ArrayList<>();
+        long[] abgelehnt = new long[threads];
+        for (int t = 0; t < threads; t++) {
+            int nr = t;
+            Thread th = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < transfersProThread; i++) {
+                    Konto quelle = konten.get(rnd.nextInt(anzahlKonten));
+                    Konto ziel = konten.get(rnd.nextInt(anzahlKonten));
+                    if (quelle == ziel) continue;
+                    try {
+                        quelle.transferRappen(ziel, 1 + rnd.nextInt(5000), "Stress");
+                    } catch (IllegalStateException ex) {
+                        abgelehnt[nr]++; // Nicht genügend Deckung ist hier erlaubt
+                    }
+                }
+            });
+            worker.add(th);
+            th.start();
+        }
+
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread th : worker) th.join();
+        long dauer = System.nanoTime() - t0;
+        System.setOut(original);
+
+        long total = (long) threads * transfersProThread;
+        long ohneDeckung = 0;
+        for (long a : abgelehnt) ohneDeckung += a;
+        long summeNachher = summe(bank);
+
+        System.out.printf("Threads: %d, Konten: %d, Transfers: %d (davon %d ohne Deckung)%n",
+                threads, anzahlKonten, total, ohneDeckung);
+        System.out.printf("Dauer: %.1f ms → %.0f Transfers/s%n", dauer / 1e6, total / (dauer / 1e9));
+        System.out.printf("Summe vorher: %s CHF, nachher: %s CHF → %s%n",
+                Betrag.formatiere(summeVorher), Betrag.formatiere(summeNachher),
+                summeVorher == summeNachher ? "OK (Geld erhalten)" : "FEHLER");
+        if (BankMetriken.AKTIV) System.out.print(BankMetriken.alsText());
+        if (summeVorher != summeNachher) System.exit(1);
+    }
+
+    private static long summe(Bank bank) {
+        long s = 0;
+        for (Konto k : bank.alleKonten()) s += k.getSaldoRappen();
+        return s;
+    }
+}
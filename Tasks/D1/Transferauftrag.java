@@ -0,0 +1,36 @@
+/**
+ * Ein einzelner Posten (Leg) eines Sammelauftrags: Betrag in Rappen von Quell- zu Ziel-IBAN.
+ * Wird an Bank.sammelTransfer(...) übergeben.
+ */
+public class Transferauftrag {
+    private final String quellIban;
+    private final String zielIban;
+    private final long betragRappen;
+
+    public Transferauftrag(String quellIban, String zielIban, long betragRappen) {
+        if (quellIban == null || quellIban.isBlank()) throw new IllegalArgumentException("Quell-IBAN darf nicht leer sein.");
+        if (zielIban == null || zielIban.isBlank()) throw new IllegalArgumentException("Ziel-IBAN darf nicht leer sein.");
+        if (quellIban.equals(zielIban)) throw new IllegalArgumentException("Transfer an sich selbst ist nicht erlaubt.");
+        if (betragRappen <= 0) throw new IllegalArgumentException("Betrag muss > 0 sein.");
+        this.quellIban = quellIban;
+        this.zielIban = zielIban;
+        this.betragRappen = betragRappen;
+    }
+
+    public String getQuellIban() {
+        return quellIban;
+    }
+
+    public String getZielIban() {
+        return zielIban;
+    }
+
+    public long getBetragRappen() {
+        return betragRappen;
+    }
+
+    @Override
+    public String toString() {
+        return quellIban + " → " + zielIban + ": " + Betrag.formatiere(betragRappen) + " CHF";
+    }
+}
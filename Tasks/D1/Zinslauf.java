@@ -0,0 +1,262 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Zinslauf: wendet eine Zinsregel auf alle Konten einer Bank an (z.B. Monatsabschluss).
+ * - Die Konten werden in IBAN-Reihenfolge in Partitionen aufgeteilt und in einem ForkJoinPool gebucht.
+ * - Jede Partition schreibt nur in ihren eigenen Abschnitt des Ergebnis-Arrays; gebucht wird wie bei
+ *   Bank.sammelTransfer: alle Konten der Partition in IBAN-Reihenfolge sperren, ein Journal-Datensatz,
+ *   ein Warten auf fsync.
+ * - Mit Checkpoint wird nach jeder gebuchten Partition festgehalten, dass sie erledigt ist. Bricht der
+ *   Lauf ab (Exception, Absturz), bucht ein neuer Lauf mit derselben Lauf-ID nur die restlichen Partitionen.
+ *   Die Partitionsgrenzen (IBANs) stehen im Checkpoint und bleiben daher auch nach einem Neustart gleich.
+ * - Zwischen fsync des Journals und Schreiben des Checkpoints bleibt ein kleines Fenster: stürzt das
+ *   Programm genau dort ab, wird diese eine Partition beim Neustart nochmals gebucht.
+ * - ausfuehrenSequentiell() ist die Referenz: ein Thread, Konto für Konto, ohne Partitionen.
+ *   Beide Varianten ergeben für dieselben Saldi exakt dieselben Beträge (nur ganze Rappen).
+ * - Konten, die während des Laufs eröffnet werden, können fehlen oder schon enthalten sein.
+ */
+public class Zinslauf {
+    private static final int MAGIC = 0x5A494E53; // "ZINS"
+
+    private final Bank bank;
+    private final Zinsregel regel;
+    private Path checkpointDatei; // null = ohne Checkpoint
+    private String laufId;
+    private int partitionsGroesse = 4096;
+
+    // Ergebnis des letzten Aufrufs, nach IBAN-Reihenfolge der Konten
+    private Konto[] konten = new Konto[0];
+    private long[] betraege = new long[0];
+    private int[] partitionsStart;  // Index des ersten Kontos jeder Partition, plus Ende
+    private String[] grenzen;       // letzte IBAN jeder Partition; "" = offenes Ende
+    private BitSet erledigt;        // nur unter synchronized(this)
+    private int uebersprungen;
+
+    Zinslauf(Bank bank, Zinsregel regel) {
+        if (regel == null) throw new IllegalArgumentException("Regel darf nicht null sein.");
+        this.bank = bank;
+        this.regel = regel;
+    }
+
+    /** Aktiviert den Checkpoint; die Lauf-ID (z.B. "2026-10") verhindert, dass ein fremder Checkpoint verwendet wird. */
+    public Zinslauf mitCheckpoint(Path datei, String laufId) {
+        if (datei == null) throw new IllegalArgumentException("Datei darf nicht null sein.");
+        if (laufId == null || laufId.isBlank()) throw new IllegalArgumentException("Lauf-ID darf nicht leer sein.");
+        this.checkpointDatei = datei;
+        this.laufId = laufId;
+        return this;
+    }
+
+    public Zinslauf mitPartitionsGroesse(int anzahlKonten) {
+        if (anzahlKonten <= 0) throw new IllegalArgumentException("Partitionsgrösse muss > 0 sein.");
+        this.partitionsGroesse = anzahlKonten;
+        return this;
+    }
+
+    /** Bucht alle (noch nicht erledigten) Partitionen parallel im gegebenen Pool. */
+    public void ausfuehren(ForkJoinPool pool) {
+        vorbereiten();
+        int partitionen = grenzen.length;
+        if (partitionen > 0) pool.invoke(new Teil(0, partitionen));
+    }
+
+    /** Referenz: bucht Konto für Konto in einem Thread (ohne Partitionen und ohne Checkpoint). */
+    public void ausfuehrenSequentiell() {
+        konten = bank.alleKonten().toArray(new Konto[0]);
+        betraege = new long[konten.length];
+        uebersprungen = 0;
+        Konto[] eins = new Konto[1];
+        long[] delta = new long[1];
+        for (int i = 0; i < konten.length; i++) {
+            eins[0] = konten[i];
+            bucheGesperrt(eins, 0, 1, delta, 0);
+            betraege[i] = delta[0];
+        }
+    }
+
+    // --- Ergebnis ---
+
+    /** Anzahl Konten, die dieser Lauf betrachtet hat. */
+    public int getAnzahlKonten() {
+        return konten.length;
+    }
+
+    public Konto getKonto(int i) {
+        return konten[i];
+    }
+
+    /** Gebuchter Betrag für Konto i (Rappen); 0 auch für Partitionen, die schon vorher erledigt waren. */
+    public long getBetrag(int i) {
+        return betraege[i];
+    }
+
+    /** Partitionen, die laut Checkpoint schon erledigt waren und übersprungen wurden. */
+    public int getUebersprungenePartitionen() {
+        return uebersprungen;
+    }
+
+    public long getSummeGutschriften() {
+        long s = 0;
+        for (long b : betraege) if (b > 0) s += b;
+        return s;
+    }
+
+    public long getSummeBelastungen() {
+        long s = 0;
+        for (long b : betraege) if (b < 0) s -= b;
+        return s;
+    }
+
+    // --- Partitionen ---
+
+    private final class Teil extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int von;
+        private final int bis;
+
+        Teil(int von, int bis) {
+            this.von = von;
+            this.bis = bis;
+        }
+
+        @Override
+        protected void compute() {
+            if (bis - von == 1) {
+                buchePartition(von);
+                return;
+            }
+            int mitte = (von + bis) >>> 1;
+            invokeAll(new Teil(von, mitte), new Teil(mitte, bis));
+        }
+    }
+
+    private void buchePartition(int p) {
+        synchronized (this) {
+            if (erledigt.get(p)) return;
+        }
+        int von = partitionsStart[p];
+        int bis = partitionsStart[p + 1];
+        if (bis > von) bucheGesperrt(konten, von, bis, betraege, von);
+        synchronized (this) {
+            erledigt.set(p);
+            if (checkpointDatei != null) speichereCheckpoint();
+        }
+    }
+
+    /**
+     * Sperrt konten[von..bis) (bereits in IBAN-Reihenfolge), berechnet die Beträge nach {@code ziel[zielStart..]},
+     * schreibt einen Journal-Datensatz und bucht. Wirft vor dem Buchen, wenn ein Saldo negativ würde.
+     */
+    private void bucheGesperrt(Konto[] k, int von, int bis, long[] ziel, int zielStart) {
+        int n = bis - von;
+        long[] alle = new long[n];
+        Konto[] gebucht = new Konto[n];
+        long[] deltas = new long[n];
+        int m = 0;
+        Journal j = bank.journal();
+        long sequenz = 0;
+        int gesperrt = von;
+        try {
+            for (; gesperrt < bis; gesperrt++) k[gesperrt].sperren();
+            for (int i = von; i < bis; i++) {
+                long saldo = k[i].saldoGesperrt();
+                long delta = regel.betrag(saldo);
+                if (Math.addExact(saldo, delta) < 0) {
+                    throw new IllegalStateException("Zinsregel würde " + k[i].getIban() + " ins Minus bringen.");
+                }
+                if (delta != 0) {
+                    gebucht[m] = k[i];
+                    deltas[m++] = delta;
+                }
+                alle[i - von] = delta;
+            }
+            if (m > 0) {
+                if (j != null) sequenz = j.sammelbuchung(gebucht, deltas, m);
+                for (int i = 0; i < m; i++) gebucht[i].bucheGesperrt(deltas[i], Kontoverlauf.ZINS);
+            }
+        } finally {
+            for (int i = gesperrt - 1; i >= von; i--) k[i].entsperren();
+        }
+        if (j != null && m > 0) j.warteAufCommit(sequenz);
+        System.arraycopy(alle, 0, ziel, zielStart, n);
+    }
+
+    /** Konten lesen, Partitionen bilden bzw. aus dem Checkpoint übernehmen. */
+    private void vorbereiten() {
+        konten = bank.alleKonten().toArray(new Konto[0]);
+        betraege = new long[konten.length];
+        erledigt = new BitSet();
+        grenzen = null;
+        if (checkpointDatei != null && Files.exists(checkpointDatei)) ladeCheckpoint();
+        if (grenzen == null) {
+            int partitionen = (konten.length + partitionsGroesse - 1) / partitionsGroesse;
+            grenzen = new String[partitionen];
+            for (int p = 0; p < partitionen; p++) {
+                grenzen[p] = p == partitionen - 1 ? "" : konten[(p + 1) * partitionsGroesse - 1].getIban();
+            }
+        }
+        uebersprungen = erledigt.cardinality();
+        partitionsStart = new int[grenzen.length + 1];
+        int i = 0;
+        for (int p = 0; p < grenzen.length; p++) {
+            partitionsStart[p] = i;
+            if (grenzen[p].isEmpty()) i = konten.length;
+            else while (i < konten.length && konten[i].getIban().compareTo(grenzen[p]) <= 0) i++;
+        }
+        partitionsStart[grenzen.length] = konten.length;
+    }
+
+    private void ladeCheckpoint() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpointDatei)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Keine Checkpoint-Datei: " + checkpointDatei);
+            String id = in.readUTF();
+            if (!id.equals(laufId)) {
+                throw new IllegalStateException("Checkpoint gehört zu Lauf '" + id + "', nicht zu '" + laufId + "'.");
+            }
+            grenzen = new String[in.readInt()];
+            for (int p = 0; p < grenzen.length; p++) grenzen[p] = in.readUTF();
+            long[] bits = new long[in.readInt()];
+            for (int i = 0; i < bits.length; i++) bits[i] = in.readLong();
+            erledigt = BitSet.valueOf(bits);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Wie Snapshot.schreiben: temporäre Datei, fsync, atomar umbenennen. */
+    private void speichereCheckpoint() {
+        Path tmp = checkpointDatei.resolveSibling(checkpointDatei.getFileName() + ".tmp");
+        try {
+            try (FileChannel kanal = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(kanal)));
+                out.writeInt(MAGIC);
+                out.writeUTF(laufId);
+                out.writeInt(grenzen.length);
+                for (String g : grenzen) out.writeUTF(g);
+                long[] bits = erledigt.toLongArray();
+                out.writeInt(bits.length);
+                for (long b : bits) out.writeLong(b);
+                out.flush();
+                kanal.force(true);
+            }
+            Files.move(tmp, checkpointDatei, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Misst den Zinslauf und prüft ihn gegen die sequentielle Referenz.
+ * - Zwei Banken mit identischen Konten: A parallel (ForkJoinPool), B sequentiell → alle Saldi müssen gleich sein.
+ * - Danach wird auf beiden ein zweiter Lauf gemacht; bei A bricht er nach etwa der Hälfte ab
+ *   (Regel wirft eine Exception) und wird mit demselben Checkpoint neu gestartet.
+ *
+ * Aufruf: java ZinslaufBenchmark [konten] [threads]
+ */
+public class ZinslaufBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int anzahlKonten = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        Bank a = erstelle(anzahlKonten);
+        Bank b = erstelle(anzahlKonten);
+        // 0.25% Zins bis 50'000 CHF, 0.1% darüber; 5 CHF Gebühr unter 1'000 CHF
+        Zinsregel regel = Zinsregel.staffelzins(50_000_00, 25, 10).dann(Zinsregel.gebuehr(5_00, 1_000_00));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        long t0 = System.nanoTime();
+        b.zinslauf(regel).ausfuehrenSequentiell();
+        long sequentiell = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        Zinslauf lauf = a.zinslauf(regel);
+        lauf.ausfuehren(pool);
+        long parallel = System.nanoTime() - t0;
+
+        System.out.printf("%d Konten, Gutschriften %s CHF, Belastungen %s CHF%n", anzahlKonten,
+                Betrag.formatiere(lauf.getSummeGutschriften()), Betrag.formatiere(lauf.getSummeBelastungen()));
+        System.out.printf("Sequentiell: %.0f ms, parallel (%d Threads): %.0f ms → %s%n",
+                sequentiell / 1e6, threads, parallel / 1e6, vergleiche(a, b));
+
+        // Zweiter Lauf mit Abbruch und Neustart aus dem Checkpoint
+        Path checkpoint = Files.createTempFile("zinslauf", ".checkpoint");
+        Files.delete(checkpoint);
+        AtomicInteger zaehler = new AtomicInteger();
+        Zinsregel abbrechend = saldo -> {
+            if (zaehler.incrementAndGet() > anzahlKonten / 2) throw new IllegalStateException("Simulierter Abbruch");
+            return regel.betrag(saldo);
+        };
+        try {
+            a.zinslauf(abbrechend).mitCheckpoint(checkpoint, "lauf-2").ausfuehren(pool);
+        } catch (IllegalStateException e) {
+            System.out.println("Lauf 2 abgebrochen, Checkpoint bleibt erhalten.");
+        }
+        Zinslauf neustart = a.zinslauf(regel).mitCheckpoint(checkpoint, "lauf-2");
+        neustart.ausfuehren(pool);
+        b.zinslauf(regel).ausfuehrenSequentiell();
+        System.out.printf("Neustart: %d Partitionen übersprungen → %s%n",
+                neustart.getUebersprungenePartitionen(), vergleiche(a, b));
+
+        // Nochmals mit derselben Lauf-ID: alles erledigt, nichts wird doppelt gebucht
+        Zinslauf nochmals = a.zinslauf(regel).mitCheckpoint(checkpoint, "lauf-2");
+        nochmals.ausfuehren(pool);
+        System.out.printf("Wiederholung: %d Partitionen übersprungen, Gutschriften %s CHF → %s%n",
+                nochmals.getUebersprungenePartitionen(), Betrag.formatiere(nochmals.getSummeGutschriften()),
+                vergleiche(a, b));
+        Files.deleteIfExists(checkpoint);
+        pool.shutdown();
+    }
+
+    private static Bank erstelle(int anzahlKonten) {
+        Random rnd = new Random(42);
+        Bank bank = new Bank("Zins Bank");
+        for (int i = 0; i < anzahlKonten; i++) {
+            Kunde kunde = bank.neuerKunde("Kunde " + i);
+            // gemischte Saldi: viele kleine, einige über der Staffelgrenze
+            long saldo = rnd.nextInt(10) == 0 ? 50_000_00 + rnd.nextInt(100_000_00) : rnd.nextInt(5_000_00);
+            bank.kontoEroeffnenRappen(kunde, saldo);
+        }
+        return bank;
+    }
+
+    private static String vergleiche(Bank a, Bank b) {
+        Iterator<Konto> ib = b.alleKonten().iterator();
+        for (Konto ka : a.alleKonten()) {
+            Konto kb = ib.next();
+            if (!ka.getIban().equals(kb.getIban()) || ka.getSaldoRappen() != kb.getSaldoRappen()) {
+                return "FEHLER bei " + ka.getIban();
+            }
+        }
+        return "identisch mit Referenz";
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Regel für Zinsen und Gebühren eines Zinslaufs (z.B. Monatsabschluss).
+ * - Rechnet nur mit ganzen Rappen (long), damit jeder Lauf exakt reproduzierbar ist.
+ * - Muss deterministisch sein und darf nur vom Saldo abhängen: der parallele Zinslauf und die
+ *   sequentielle Referenz müssen für jedes Konto denselben Betrag ergeben.
+ * - Das Ergebnis darf den Saldo nicht negativ machen (wird vom Zinslauf geprüft).
+ */
+@FunctionalInterface
+public interface Zinsregel {
+
+    /**
+     * @param saldoRappen aktueller Saldo des Kontos
+     * @return Veränderung in Rappen (positiv = Zins-Gutschrift, negativ = Gebühr, 0 = nichts buchen)
+     */
+    long betrag(long saldoRappen);
+
+    /** Zuerst diese Regel, dann {@code danach} auf den bereits veränderten Saldo. */
+    default Zinsregel dann(Zinsregel danach) {
+        if (danach == null) throw new IllegalArgumentException("Regel darf nicht null sein.");
+        return saldo -> {
+            long erster = betrag(saldo);
+            return Math.addExact(erster, danach.betrag(Math.addExact(saldo, erster)));
+        };
+    }
+
+    /**
+     * Zins in Basispunkten (1/100 Prozent) pro Lauf auf den ganzen Saldo, auf Rappen abgerundet.
+     * Beispiel: zins(10) = 0.1% → 1234.56 CHF ergibt 1.23 CHF.
+     */
+    static Zinsregel zins(int basispunkte) {
+        if (basispunkte < 0) throw new IllegalArgumentException("Zinssatz darf nicht negativ sein.");
+        return saldo -> Math.multiplyExact(saldo, basispunkte) / 10_000;
+    }
+
+    /**
+     * Staffelzins: bis {@code grenzeRappen} gilt {@code basispunkteBis}, für den Teil darüber
+     * {@code basispunkteDarueber}. Beide Teile werden einzeln abgerundet.
+     */
+    static Zinsregel staffelzins(long grenzeRappen, int basispunkteBis, int basispunkteDarueber) {
+        if (grenzeRappen < 0) throw new IllegalArgumentException("Grenze darf nicht negativ sein.");
+        Zinsregel unten = zins(basispunkteBis);
+        Zinsregel oben = zins(basispunkteDarueber);
+        return saldo -> saldo <= grenzeRappen ? unten.betrag(saldo)
+                : unten.betrag(grenzeRappen) + oben.betrag(saldo - grenzeRappen);
+    }
+
+    /**
+     * Feste Kontoführungsgebühr, entfällt ab einem Mindestsaldo.
+     * Ist der Saldo kleiner als die Gebühr, wird nur der Saldo belastet.
+     */
+    static Zinsregel gebuehr(long gebuehrRappen, long gratisAbRappen) {
+        if (gebuehrRappen < 0) throw new IllegalArgumentException("Gebühr darf nicht negativ sein.");
+        return saldo -> saldo >= gratisAbRappen ? 0 : -Math.min(gebuehrRappen, saldo);
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A running animation: a step that is repeated a fixed number of times,
+ * driven frame by frame by the Animator. The caller gets this handle back
+ * immediately and can wait for the animation to finish, or cancel it.
+ */
+public class Animation
+{
+    private final int steps;
+    private final int framesPerStep;
+    private final Runnable step;
+    private int stepsDone;
+    private int frame;
+    private volatile boolean done;
+    private final CountDownLatch finished;
+
+    /**
+     * Create an animation that runs 'step' 'steps' times, once every
+     * 'framesPerStep' frames. Use Animator.animate(...) to start it.
+     */
+    Animation(int steps, int framesPerStep, Runnable step)
+    {
+        if(steps < 0 || framesPerStep < 1) {
+            throw new IllegalArgumentException("steps must be >= 0 and framesPerStep >= 1");
+        }
+        this.steps = steps;
+        this.framesPerStep = framesPerStep;
+        this.step = step;
+        finished = new CountDownLatch(1);
+        if(steps == 0) {
+            done = true;
+            release();
+        }
+    }
+
+    /**
+     * Advance by one frame (called by the Animator only).
+     * @return  false when the animation has finished
+     */
+    boolean tick()
+    {
+        if(done) {
+            return false;
+        }
+        frame++;
+        if(frame % framesPerStep == 0) {
+            try {
+                step.run();
+            }
+            catch(RuntimeException e) {
+                done = true;   // do not leave waiting callers hanging
+                throw e;
+            }
+            stepsDone++;
+            if(stepsDone == steps) {
+                done = true;
+            }
+        }
+        return !done;
+    }
+
+    /**
+     * Block until the animation has finished or was cancelled, and its
+     * last frame is on the canvas.
+     */
+    public void waitUntilDone()
+    {
+        if(Animator.isAnimatorThread()) {
+            throw new IllegalStateException("cannot wait for an animation inside an animation step");
+        }
+        try {
+            finished.await();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stop the animation after the current frame. Steps already done stay done.
+     */
+    public void cancel()
+    {
+        done = true;
+    }
+
+    /**
+     * Return true if the animation has finished or was cancelled.
+     */
+    public boolean isDone()
+    {
+        return done;
+    }
+
+    /**
+     * Wake up waiting callers (called by the Animator once the frame with
+     * the last step is drawn).
+     */
+    void release()
+    {
+        finished.countDown();
+    }
+}
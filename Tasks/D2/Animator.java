@@ -0,0 +1,157 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Animator drives all running animations from one timer at a fixed
+ * frame rate. In every frame each animation makes its step, and all
+ * resulting changes on the Canvas are coalesced into one repaint
+ * (Canvas.beginFrame/endFrame). Starting an animation does not block the
+ * caller, so several shapes can move at the same time.
+ *
+ * The timer thread only runs while there are animations. For headless
+ * batch rendering the frame length can be set to 0: frames are then
+ * computed back to back as fast as possible.
+ */
+public class Animator
+{
+    /** Default length of one frame; one step per frame is as fast as the old wait(10) per move. */
+    public static final int FRAME_MILLIS = 10;
+
+    private static Animator animatorSingleton;
+    private static volatile Thread animatorThread;
+
+    /**
+     * Factory method to get the animator singleton object.
+     */
+    public static synchronized Animator getAnimator()
+    {
+        if(animatorSingleton == null) {
+            animatorSingleton = new Animator();
+        }
+        return animatorSingleton;
+    }
+
+    /**
+     * Return true if called from inside an animation step.
+     */
+    static boolean isAnimatorThread()
+    {
+        return Thread.currentThread() == animatorThread;
+    }
+
+    //  ----- instance part -----
+
+    private final ScheduledExecutorService timer;
+    private final List<Animation> animations;
+    private ScheduledFuture<?> ticking;
+    private int frameMillis;
+
+    private Animator()
+    {
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Animator");
+            thread.setDaemon(true);   // must not keep the program alive
+            return thread;
+        });
+        animations = new ArrayList<Animation>();
+        frameMillis = FRAME_MILLIS;
+    }
+
+    /**
+     * Change the length of a frame in milliseconds; 0 means as fast as
+     * possible. Running animations continue at the new rate.
+     */
+    public synchronized void setFrameMillis(int millis)
+    {
+        if(millis < 0) {
+            throw new IllegalArgumentException("frame length must be >= 0");
+        }
+        frameMillis = millis;
+        if(ticking != null) {
+            ticking.cancel(false);
+            ticking = schedule();
+        }
+    }
+
+    public synchronized int getFrameMillis()
+    {
+        return frameMillis;
+    }
+
+    /**
+     * Start an animation that runs 'step' 'steps' times, once per frame.
+     * @return  the running animation (wait for it with waitUntilDone())
+     */
+    public Animation animate(int steps, Runnable step)
+    {
+        return animate(steps, 1, step);
+    }
+
+    /**
+     * Start an animation that runs 'step' 'steps' times, once every
+     * 'framesPerStep' frames (2 = half speed).
+     */
+    public synchronized Animation animate(int steps, int framesPerStep, Runnable step)
+    {
+        Animation animation = new Animation(steps, framesPerStep, step);
+        if(!animation.isDone()) {
+            animations.add(animation);
+            if(ticking == null) {
+                ticking = schedule();
+            }
+        }
+        return animation;
+    }
+
+    private ScheduledFuture<?> schedule()
+    {
+        if(frameMillis == 0) {
+            return timer.scheduleWithFixedDelay(this::tick, 0, 1, TimeUnit.NANOSECONDS);
+        }
+        return timer.scheduleAtFixedRate(this::tick, frameMillis, frameMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Compute one frame: every running animation makes its step, then the
+     * Canvas repaints everything that changed at once.
+     */
+    private void tick()
+    {
+        animatorThread = Thread.currentThread();
+        Animation[] current;
+        synchronized(this) {
+            current = animations.toArray(new Animation[0]);
+        }
+        Canvas canvas = Canvas.getCanvas();
+        canvas.beginFrame();
+        try {
+            for(Animation animation : current) {
+                try {
+                    animation.tick();
+                }
+                catch(RuntimeException e) {
+                    e.printStackTrace();   // a broken animation must not stop the others
+                }
+            }
+        }
+        finally {
+            canvas.endFrame();
+        }
+        synchronized(this) {
+            for(Animation animation : current) {
+                if(animation.isDone()) {
+                    animations.remove(animation);
+                    animation.release();
+                }
+            }
+            if(animations.isEmpty()) {
+                ticking.cancel(false);
+                ticking = null;
+            }
+        }
+    }
+}
@@ -1,13 +1,28 @@
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Canvas is a class to allow for simple graphical drawing on a canvas.
  * This is a modification of the general purpose Canvas, specially made for
  * the BlueJ "shapes" example. 
  *
+ * Without a display (headless build servers, or -Dcanvas.headless=true)
+ * the canvas draws into an offscreen image only; it can be saved as PNG
+ * (writePng) and FrameListeners are told about every finished frame, e.g.
+ * to record an animation (FrameRecorder). Its size can be set with
+ * -Dcanvas.width and -Dcanvas.height. Large areas can be redrawn by
+ * several threads (setRenderThreads, or -Dcanvas.renderThreads).
+ * A FrameProfiler (setProfiler) measures the time spent per frame.
+ *
  * @author: Bruce Quig
  * @author: Michael Klling (mik)
  *
@@ -20,30 +35,80 @@ public class Canvas
     // is done on purpose to keep the interface and instance fields of the
     // shape objects in this project clean and simple for educational purposes.
 
+    private static final int MAX_DIRTY_AREAS = 16;
+    private static final Rectangle OVERLAY_AREA = new Rectangle(0, 0, 320, 50);
+    private static final Comparator<ShapeDescription> DRAWING_ORDER =
+        Comparator.comparingLong(description -> description.order);
+
     private static Canvas canvasSingleton;
 
     /**
      * Factory method to get the canvas singleton object.
      */
-    public static Canvas getCanvas()
+    public static synchronized Canvas getCanvas()
     {
         if(canvasSingleton == null) {
-            canvasSingleton = new Canvas("BlueJ Picture Demo", 500, 300, 
-                                         Color.white);
+            if(isHeadless()) {
+                canvasSingleton = new Canvas(Integer.getInteger("canvas.width", 500),
+                                             Integer.getInteger("canvas.height", 300),
+                                             Color.white);
+            }
+            else {
+                canvasSingleton = new Canvas("BlueJ Picture Demo", 500, 300, 
+                                             Color.white);
+            }
         }
         canvasSingleton.setVisible(true);
+        int renderThreads = Integer.getInteger("canvas.renderThreads", 1);
+        if(renderThreads > 1 && canvasSingleton.getRenderThreads() == 1) {
+            canvasSingleton.setRenderThreads(renderThreads);
+        }
         return canvasSingleton;
     }
 
+    /**
+     * Return true if the canvas renders offscreen only (no window).
+     */
+    public static boolean isHeadless()
+    {
+        return GraphicsEnvironment.isHeadless() || Boolean.getBoolean("canvas.headless");
+    }
+
+    /**
+     * Is told after every frame (Canvas.endFrame) that the image is complete.
+     */
+    public interface FrameListener
+    {
+        void frameFinished(Canvas canvas, long frameNumber);
+    }
+
     //  ----- instance part -----
 
-    private JFrame frame;
-    private CanvasPane canvas;
+    private JFrame frame;        // null when headless
+    private CanvasPane canvas;   // null when headless
+    private int width;
+    private int height;
     private Graphics2D graphic;
     private Color backgroundColor;
     private Image canvasImage;
-    private List<Object> objects;
+    private ShapeDescription bottom;   // drawing order: a linked list through
+    private ShapeDescription top;      // the shape descriptions (O(1) reordering)
     private HashMap<Object, ShapeDescription> shapes;
+    private SpatialGrid<ShapeDescription> index;   // finds the shapes in an area
+    private ArrayList<ShapeDescription> found;     // reused by the queries
+    private long drawCount;                        // drawing order of the shapes:
+    private long lowestOrder;                      // ShapeDescription.order, unique
+    private Rectangle previous;   // reused when a shape is moved: no garbage
+    private Rectangle changed;    // per animation step
+    private List<Rectangle> dirtyAreas;   // collected while inside a frame
+    private int frameDepth;
+    private long frameCount;
+    private List<FrameListener> frameListeners;
+    private TileRenderer<ShapeDescription> tiles;   // redraws dirty areas tile by tile
+    private volatile FrameProfiler profiler;   // null: nothing is measured
+    private volatile boolean overlayVisible;
+    private long frameStart;                   // for the profiler
+    private AtomicLong shapesDrawn;            // by all render threads, for the profiler
     
     /**
      * Create a Canvas.
@@ -62,8 +127,35 @@ public class Canvas
         canvas.setPreferredSize(new Dimension(width, height));
         backgroundColor = bgColor;
         frame.pack();
-        objects = new ArrayList<Object>();
+        init();
+    }
+
+    /**
+     * Create a headless Canvas that only draws into an offscreen image.
+     * @param width    the width of the image
+     * @param height   the height of the image
+     * @param bgColor  the background color of the canvas
+     */
+    private Canvas(int width, int height, Color bgColor)
+    {
+        this.width = width;
+        this.height = height;
+        backgroundColor = bgColor;
+        canvasImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        init();
+    }
+
+    private void init()
+    {
         shapes = new HashMap<Object, ShapeDescription>();
+        index = new SpatialGrid<ShapeDescription>();
+        found = new ArrayList<ShapeDescription>();
+        previous = new Rectangle();
+        changed = new Rectangle();
+        dirtyAreas = new ArrayList<Rectangle>();
+        frameListeners = new ArrayList<FrameListener>();
+        tiles = new TileRenderer<ShapeDescription>(this::paintArea);
+        shapesDrawn = new AtomicLong();
     }
 
     /**
@@ -78,14 +170,24 @@ public class Canvas
         if(graphic == null) {
             // first time: instantiate the offscreen image and fill it with
             // the background color
-            Dimension size = canvas.getSize();
-            canvasImage = canvas.createImage(size.width, size.height);
+            if(frame != null) {
+                Dimension size = canvas.getSize();
+                width = size.width;
+                height = size.height;
+                canvasImage = canvas.createImage(width, height);
+            }
             graphic = (Graphics2D)canvasImage.getGraphics();
+            // without normalization a shape is filled the same with or without
+            // a clip, so redrawing only a dirty area gives the same pixels
+            graphic.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL,
+                                     RenderingHints.VALUE_STROKE_PURE);
             graphic.setColor(backgroundColor);
-            graphic.fillRect(0, 0, size.width, size.height);
+            graphic.fillRect(0, 0, width, height);
             graphic.setColor(Color.black);
         }
-        frame.setVisible(visible);
+        if(frame != null) {
+            frame.setVisible(visible);
+        }
     }
 
     /**
@@ -97,55 +199,382 @@ public class Canvas
      // Note: this is a slightly backwards way of maintaining the shape
      // objects. It is carefully designed to keep the visible shape interfaces
      // in this project clean and simple for educational purposes.
-    public void draw(Object referenceObject, String color, Shape shape)
+    public synchronized void draw(Object referenceObject, String color, Shape shape)
     {
-        objects.remove(referenceObject);   // just in case it was already there
-        objects.add(referenceObject);      // add at the end
-        shapes.put(referenceObject, new ShapeDescription(shape, color));
-        redraw();
+        replace(referenceObject, new ShapeDescription(shape, Colors.get(color)));
+    }
+
+    /**
+     * Draw a given shape onto the canvas, with a color already resolved by
+     * Colors.get(...) (faster: no lookup of the color name).
+     * @param  referenceObject  an object to define identity for this shape
+     * @param  color            the color of the shape
+     * @param  shape            the shape object to be drawn on the canvas
+     */
+    public synchronized void draw(Object referenceObject, Color color, Shape shape)
+    {
+        replace(referenceObject, new ShapeDescription(shape, color));
+    }
+
+    /**
+     * Draw a prerendered layer (e.g. a whole Group) onto the canvas as one
+     * object: moving it only changes its position, not the image.
+     * @param  referenceObject  an object to define identity for this layer
+     * @param  layer            the image, transparent where nothing is drawn
+     * @param  x                canvas position of the image's left edge
+     * @param  y                canvas position of the image's top edge
+     */
+    public synchronized void drawLayer(Object referenceObject, Image layer, int x, int y)
+    {
+        ShapeDescription description = shapes.get(referenceObject);
+        if(description != null && description.layer == layer) {
+            moveTo(description, null, x, y);
+        }
+        else {
+            replace(referenceObject, new ShapeDescription(layer, x, y));
+        }
+    }
+
+    /**
+     * Draw a shape given in its own coordinates at canvas position (x, y).
+     * A shape object that keeps its geometry and passes the same Shape
+     * again when it moves or changes color is only moved: the canvas keeps
+     * the prepared geometry and allocates nothing.
+     * @param  referenceObject  an object to define identity for this shape
+     * @param  color            the color of the shape
+     * @param  shape            the shape, relative to (x, y); must not be changed later
+     * @param  x                canvas position of the shape's origin
+     * @param  y                canvas position of the shape's origin
+     */
+    public synchronized void draw(Object referenceObject, Color color, Shape shape, int x, int y)
+    {
+        ShapeDescription description = shapes.get(referenceObject);
+        if(description != null && description.source == shape) {
+            moveTo(description, color, x, y);
+        }
+        else {
+            replace(referenceObject, new ShapeDescription(shape, color, x, y));
+        }
+    }
+
+    private void replace(Object referenceObject, ShapeDescription newShape)
+    {
+        ShapeDescription oldShape = shapes.put(referenceObject, newShape);
+        if(oldShape != null) {
+            unlink(oldShape);
+            index.remove(oldShape, oldShape.bounds);
+        }
+        newShape.referenceObject = referenceObject;
+        linkOnTop(newShape);               // add at the end
+        index.insert(newShape, newShape.bounds);
+        if(oldShape == null) {
+            invalidate(newShape.bounds);
+        }
+        else {
+            invalidate(oldShape.bounds, newShape.bounds);
+        }
+    }
+
+    /**
+     * Move a shape that is already on the canvas and put it on top, reusing
+     * its description.
+     */
+    private void moveTo(ShapeDescription description, Color color, int x, int y)
+    {
+        previous.setBounds(description.bounds);
+        if(color != null) {
+            description.color = color;
+        }
+        description.moveTo(x, y);
+        unlink(description);
+        linkOnTop(description);
+        index.move(description, previous, description.bounds);
+        invalidate(previous, description.bounds);
     }
  
     /**
      * Erase a given shape's from the screen.
      * @param  referenceObject  the shape object to be erased 
      */
-    public void erase(Object referenceObject)
+    public synchronized void erase(Object referenceObject)
     {
-        objects.remove(referenceObject);   // just in case it was already there
-        shapes.remove(referenceObject);
-        redraw();
+        long start = profiler == null ? 0 : System.nanoTime();
+        ShapeDescription oldShape = shapes.remove(referenceObject);
+        if(oldShape != null) {
+            unlink(oldShape);
+            index.remove(oldShape, oldShape.bounds);
+            invalidate(oldShape.bounds);
+        }
+        if(profiler != null) {
+            profiler.erased(System.nanoTime() - start);
+        }
     }
 
     /**
-     * Set the foreground color of the Canvas.
-     * @param  newColor   the new color for the foreground of the Canvas 
+     * Draw the given shape on top of all others. Note that drawing a shape
+     * again (e.g. moving it) always puts it on top, as before.
+     * @param  referenceObject  the shape object to be moved to the front
      */
-    public void setForegroundColor(String colorString)
+    public synchronized void bringToFront(Object referenceObject)
     {
-        if(colorString.equals("red")) {
-            graphic.setColor(new Color(235, 25, 25));
+        ShapeDescription description = shapes.get(referenceObject);
+        if(description != null && description != top) {
+            unlink(description);
+            linkOnTop(description);
+            invalidate(description.bounds);
         }
-        else if(colorString.equals("black")) {
-            graphic.setColor(Color.black);
+    }
+
+    /**
+     * Draw the given shape below all others (until it is drawn again).
+     * @param  referenceObject  the shape object to be moved to the back
+     */
+    public synchronized void sendToBack(Object referenceObject)
+    {
+        ShapeDescription description = shapes.get(referenceObject);
+        if(description != null && description != bottom) {
+            unlink(description);
+            description.order = --lowestOrder;
+            description.above = bottom;
+            bottom.below = description;
+            bottom = description;
+            invalidate(description.bounds);
+        }
+    }
+
+    /**
+     * Return all objects on the canvas in drawing order (the bottom one first).
+     */
+    public synchronized List<Object> getObjects()
+    {
+        List<Object> result = new ArrayList<Object>(shapes.size());
+        for(ShapeDescription d = bottom; d != null; d = d.above) {
+            result.add(d.referenceObject);
         }
-        else if(colorString.equals("blue")) {
-            graphic.setColor(new Color(30, 75, 220));
+        return result;
+    }
+
+    private void linkOnTop(ShapeDescription description)
+    {
+        description.order = ++drawCount;
+        description.below = top;
+        description.above = null;
+        if(top == null) {
+            bottom = description;
         }
-        else if(colorString.equals("yellow")) {
-            graphic.setColor(new Color(255, 230, 0));
+        else {
+            top.above = description;
         }
-        else if(colorString.equals("green")) {
-            graphic.setColor(new Color(80, 160, 60));
+        top = description;
+    }
+
+    private void unlink(ShapeDescription description)
+    {
+        if(description.below == null) {
+            bottom = description.above;
         }
-        else if(colorString.equals("magenta")) {
-            graphic.setColor(Color.magenta);
+        else {
+            description.below.above = description.above;
         }
-        else if(colorString.equals("white")) {
-            graphic.setColor(Color.white);
+        if(description.above == null) {
+            top = description.below;
         }
         else {
-            graphic.setColor(Color.black);
+            description.above.below = description.below;
+        }
+        description.below = null;
+        description.above = null;
+    }
+
+    /**
+     * Start a frame: until the matching endFrame(), draw and erase only
+     * collect the changed areas instead of redrawing them. Frames may be
+     * nested; only the outermost endFrame() redraws.
+     */
+    public synchronized void beginFrame()
+    {
+        if(frameDepth == 0 && profiler != null) {
+            frameStart = System.nanoTime();
+        }
+        frameDepth++;
+    }
+
+    /**
+     * End a frame and redraw everything that changed during it, so that
+     * many moves result in a single repaint.
+     */
+    public synchronized void endFrame()
+    {
+        if(frameDepth == 0) {
+            throw new IllegalStateException("endFrame() without beginFrame()");
+        }
+        frameDepth--;
+        if(frameDepth == 0) {
+            for(Rectangle area : dirtyAreas) {
+                redraw(area);
+            }
+            dirtyAreas.clear();
+            frameCount++;
+            FrameProfiler current = profiler;
+            if(current != null) {
+                current.frameFinished(System.nanoTime() - frameStart, shapes.size());
+                if(overlayVisible && canvas != null) {
+                    canvas.repaint(OVERLAY_AREA);
+                }
+            }
+            for(FrameListener listener : frameListeners) {
+                listener.frameFinished(this, frameCount);
+            }
+        }
+    }
+
+    /**
+     * Remove all shapes from the canvas.
+     */
+    public synchronized void clear()
+    {
+        bottom = null;
+        top = null;
+        shapes.clear();
+        index.clear();
+        dirtyAreas.clear();
+        redraw(new Rectangle(0, 0, width, height));
+    }
+
+    /**
+     * Return the object whose shape is drawn on top at canvas position
+     * (x, y), or null if there is only background.
+     */
+    public synchronized Object getObjectAt(int x, int y)
+    {
+        ShapeDescription hit = null;
+        found.clear();
+        index.query(new Rectangle(x, y, 1, 1), found);
+        for(ShapeDescription description : found) {
+            if((hit == null || description.order > hit.order) && description.contains(x, y)) {
+                hit = description;
+            }
+        }
+        found.clear();
+        return hit == null ? null : hit.referenceObject;
+    }
+
+    /**
+     * Return all objects whose shapes overlap the given region, in drawing
+     * order (the bottom one first).
+     */
+    public synchronized List<Object> getObjectsIn(Rectangle region)
+    {
+        found.clear();
+        index.query(region, found);
+        found.sort(DRAWING_ORDER);
+        List<Object> result = new ArrayList<Object>();
+        for(ShapeDescription description : found) {
+            if(description.overlaps(region)) {
+                result.add(description.referenceObject);
+            }
         }
+        found.clear();
+        return result;
+    }
+
+    /**
+     * Number of frames finished so far (see endFrame).
+     */
+    public synchronized long getFrameCount()
+    {
+        return frameCount;
+    }
+
+    public synchronized void addFrameListener(FrameListener listener)
+    {
+        frameListeners.add(listener);
+    }
+
+    public synchronized void removeFrameListener(FrameListener listener)
+    {
+        frameListeners.remove(listener);
+    }
+
+    /**
+     * Return a copy of the current canvas image.
+     */
+    public synchronized BufferedImage getImage()
+    {
+        BufferedImage copy = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = copy.createGraphics();
+        g.drawImage(canvasImage, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+
+    /**
+     * Save the current canvas image as PNG file.
+     */
+    public synchronized void writePng(File file) throws IOException
+    {
+        BufferedImage image = canvasImage instanceof BufferedImage ? (BufferedImage)canvasImage : getImage();
+        if(!ImageIO.write(image, "png", file)) {
+            throw new IOException("no PNG writer available");
+        }
+    }
+
+    /**
+     * Redraw with the given number of threads, each drawing different
+     * tiles of the image (1: no extra threads, every dirty area is drawn in
+     * one pass). The pixels are the same for any number of threads above
+     * one; compared with one thread, a few pixels on shape edges can differ
+     * (see TileRenderer).
+     */
+    public synchronized void setRenderThreads(int threads)
+    {
+        if(threads > 1 && !(canvasImage instanceof BufferedImage)) {
+            throw new IllegalStateException("render threads need an offscreen BufferedImage");
+        }
+        tiles.setThreads(threads, threads > 1 ? (BufferedImage)canvasImage : null);
+    }
+
+    public synchronized int getRenderThreads()
+    {
+        return tiles.getThreads();
+    }
+
+    /**
+     * Measure every frame with the given profiler from now on (null: stop
+     * measuring).
+     */
+    public synchronized void setProfiler(FrameProfiler profiler)
+    {
+        this.profiler = profiler;
+        if(frameDepth > 0) {
+            frameStart = System.nanoTime();   // started inside a frame: measure from here
+        }
+    }
+
+    public synchronized FrameProfiler getProfiler()
+    {
+        return profiler;
+    }
+
+    /**
+     * Show the profiler's numbers in the top left corner of the canvas
+     * window. The overlay is only painted on screen, not into the image.
+     */
+    public void setOverlayVisible(boolean visible)
+    {
+        overlayVisible = visible;
+        if(canvas != null) {
+            canvas.repaint(OVERLAY_AREA);
+        }
+    }
+
+    /**
+     * Set the foreground color of the Canvas.
+     * @param  newColor   the new color for the foreground of the Canvas 
+     */
+    public void setForegroundColor(String colorString)
+    {
+        graphic.setColor(Colors.get(colorString));
     }
 
     /**
@@ -167,27 +596,140 @@ public class Canvas
     }
 
     /**
-     * Redraw ell shapes currently on the Canvas.
+     * Mark the area of a shape before and after a change as changed.
+     */
+    private void invalidate(Rectangle oldBounds, Rectangle newBounds)
+    {
+        if(oldBounds.intersects(newBounds)) {
+            changed.setBounds(oldBounds);
+            changed.add(newBounds);
+            invalidate(changed);
+        }
+        else {
+            // far apart (e.g. a jump): two small areas are cheaper than their union
+            invalidate(oldBounds);
+            invalidate(newBounds);
+        }
+    }
+
+    /**
+     * Mark an area as changed: redraw it now, or at the end of the current
+     * frame. With render threads the area is extended to whole tiles (see
+     * redraw). Overlapping
+     * areas of one frame are merged, so that no pixel is drawn twice; too
+     * many separate areas are merged into one.
+     */
+    private void invalidate(Rectangle area)
+    {
+        if(frameDepth == 0) {
+            redraw(area);
+            return;
+        }
+        for(int i = 0; i < dirtyAreas.size(); i++) {
+            if(dirtyAreas.get(i).contains(area)) {
+                return;   // already to be redrawn
+            }
+        }
+        Rectangle merged = tiles.getThreads() > 1 ? TileRenderer.align(area) : new Rectangle(area);
+        boolean grown = true;
+        while(grown) {
+            grown = false;
+            for(Iterator<Rectangle> it = dirtyAreas.iterator(); it.hasNext(); ) {
+                Rectangle other = it.next();
+                if(other.intersects(merged)) {
+                    merged.add(other);
+                    it.remove();
+                    grown = true;
+                }
+            }
+        }
+        dirtyAreas.add(merged);
+        if(dirtyAreas.size() > MAX_DIRTY_AREAS) {
+            Rectangle all = dirtyAreas.get(0);
+            for(Rectangle other : dirtyAreas) {
+                all.add(other);
+            }
+            dirtyAreas.clear();
+            dirtyAreas.add(all);
+        }
+    }
+
+    /**
+     * Redraw the given (dirty) area of the Canvas: clear it and draw only
+     * the shapes whose bounds intersect it, in their drawing order. Only
+     * this area is repainted on screen.
+     *
+     * With one thread the area is drawn in a single pass. With render
+     * threads it is drawn in whole tiles of a fixed grid, each clipped to
+     * its tile, so a pixel always gets the same color, whether the whole
+     * canvas or only a small area around it is redrawn (see TileRenderer).
+     */
+    private void redraw(Rectangle area)
+    {
+        boolean tiled = tiles.getThreads() > 1;
+        Rectangle dirty = (tiled ? TileRenderer.align(area) : area).intersection(new Rectangle(0, 0, width, height));
+        if(dirty.isEmpty()) {
+            return;   // completely outside the visible canvas
+        }
+        FrameProfiler current = profiler;
+        if(current == null) {
+            paintDirty(dirty, tiled);
+        }
+        else {
+            shapesDrawn.set(0);
+            long start = System.nanoTime();
+            paintDirty(dirty, tiled);
+            current.redrawn(System.nanoTime() - start, (long)dirty.width * dirty.height, shapesDrawn.get());
+        }
+        if(canvas != null) {
+            canvas.repaint(dirty);
+        }
+    }
+
+    /**
+     * Draw the dirty area tile by tile, or in one pass clipped to the area.
+     */
+    private void paintDirty(Rectangle dirty, boolean tiled)
+    {
+        if(tiled) {
+            tiles.render(dirty, graphic);
+        }
+        else {
+            graphic.setClip(dirty);
+            paintArea(graphic, dirty, found);
+            graphic.setClip(null);
+        }
+    }
+
+    /**
+     * Clear an area (a tile, or the whole dirty area) and draw the shapes
+     * that intersect it, using 'list' for the shapes found. The graphic is
+     * clipped to the area. (Called by several threads at once when drawing
+     * with render threads.)
      */
-    private void redraw()
+    private void paintArea(Graphics2D areaGraphic, Rectangle area, List<ShapeDescription> list)
     {
-        erase();
-        for(Object shape : objects) {
-            shapes.get(shape).draw(graphic);
+        erase(areaGraphic, area);
+        index.query(area, list);
+        list.sort(DRAWING_ORDER);
+        for(ShapeDescription description : list) {
+            description.draw(areaGraphic);
         }
-        canvas.repaint();
+        if(profiler != null) {
+            shapesDrawn.addAndGet(list.size());
+        }
+        list.clear();
     }
        
     /**
-     * Erase the whole canvas. (Does not repaint.)
+     * Erase the given area of the canvas. (Does not repaint.)
      */
-    private void erase()
+    private void erase(Graphics2D areaGraphic, Rectangle area)
     {
-        Color original = graphic.getColor();
-        graphic.setColor(backgroundColor);
-        Dimension size = canvas.getSize();
-        graphic.fill(new Rectangle(0, 0, size.width, size.height));
-        graphic.setColor(original);
+        Color original = areaGraphic.getColor();
+        areaGraphic.setColor(backgroundColor);
+        areaGraphic.fill(area);
+        areaGraphic.setColor(original);
     }
 
 
@@ -200,7 +742,15 @@ public class Canvas
     {
         public void paint(Graphics g)
         {
+            FrameProfiler current = profiler;
+            long start = current == null ? 0 : System.nanoTime();
             g.drawImage(canvasImage, 0, 0, null);
+            if(current != null) {
+                current.painted(System.nanoTime() - start);
+                if(overlayVisible) {
+                    current.drawOverlay(g);
+                }
+            }
         }
     }
     
@@ -211,19 +761,101 @@ public class Canvas
      */
     private class ShapeDescription
     {
-        private Shape shape;
-        private String colorString;
+        private Shape source;       // as given to draw, to recognize it again
+        private Shape shape;        // relative to (x, y)
+        private Color color;
+        private Image layer;        // instead of shape and color: a prerendered image
+        private int x;              // position on the canvas
+        private int y;
+        private Rectangle localBounds;   // bounds relative to (x, y)
+        private Rectangle bounds;   // pixels touched by the shape (one pixel margin)
+        private Object referenceObject;
+        private long order;         // shapes with a higher order are drawn on top
+        private ShapeDescription below;
+        private ShapeDescription above;
+
+        public ShapeDescription(Shape shape, Color color)
+        {
+            this(shape, color, 0, 0);
+        }
+
+        public ShapeDescription(Shape shape, Color color, int x, int y)
+        {
+            source = shape;
+            this.shape = flatten(shape);
+            this.color = color;
+            localBounds = shape.getBounds();
+            localBounds.grow(1, 1);
+            bounds = new Rectangle();
+            moveTo(x, y);
+        }
 
-        public ShapeDescription(Shape shape, String color)
+        public ShapeDescription(Image layer, int x, int y)
         {
-            this.shape = shape;
-            colorString = color;
+            this.layer = layer;
+            localBounds = new Rectangle(0, 0, layer.getWidth(null), layer.getHeight(null));
+            bounds = new Rectangle();
+            moveTo(x, y);
+        }
+
+        public void moveTo(int x, int y)
+        {
+            this.x = x;
+            this.y = y;
+            bounds.setBounds(localBounds.x + x, localBounds.y + y,
+                             localBounds.width, localBounds.height);
         }
 
         public void draw(Graphics2D graphic)
         {
-            setForegroundColor(colorString);
+            if(layer != null) {
+                graphic.drawImage(layer, x, y, null);
+                return;
+            }
+            graphic.setColor(color);
+            graphic.translate(x, y);   // whole pixels: the same pixels as drawn in place
             graphic.fill(shape);
+            graphic.translate(-x, -y);
+        }
+
+        /**
+         * Does the shape cover the pixel at (x, y)?
+         */
+        public boolean contains(int x, int y)
+        {
+            if(layer != null) {
+                if(!bounds.contains(x, y)) {
+                    return false;
+                }
+                return !(layer instanceof BufferedImage)
+                    || ((BufferedImage)layer).getRGB(x - bounds.x, y - bounds.y) >>> 24 != 0;
+            }
+            return shape.contains(x - this.x + 0.5, y - this.y + 0.5);   // pixel centre, as when filling
+        }
+
+        /**
+         * Does the shape overlap the given area?
+         */
+        public boolean overlaps(Rectangle area)
+        {
+            return layer != null ? bounds.intersects(area)
+                                 : shape.intersects(area.x - x, area.y - y, area.width, area.height);
+        }
+
+        /**
+         * Replace curves by short lines: Java2D subdivides curves depending
+         * on the clip, so only straight edges fill the same pixels whether
+         * the whole canvas or just a dirty area is redrawn.
+         */
+        private Shape flatten(Shape shape)
+        {
+            if(shape instanceof Rectangle || shape instanceof Polygon) {
+                return shape;
+            }
+            PathIterator lines = shape.getPathIterator(null, 0.25);
+            Path2D.Double path = new Path2D.Double(lines.getWindingRule());
+            path.append(lines, false);
+            return path;
         }
     }
 
@@ -13,7 +13,8 @@ public class Circle
     private int diameter;
     private int xPosition;
     private int yPosition;
-    private String color;
+    private Color colorValue;   // looked up once per color change, not per draw
+    private Shape shape;        // at (0, 0); built again only when the size changes
     private boolean isVisible;
     
     /**
@@ -24,7 +25,8 @@ public class Circle
         diameter = 68;
         xPosition = 230;
         yPosition = 90;
-        color = "blue";
+        colorValue = Colors.get("blue");
+        shape = new Ellipse2D.Double(0, 0, diameter, diameter);
     }
 
     /**
@@ -82,9 +84,8 @@ public class Circle
      */
     public void moveHorizontal(int distance)
     {
-        erase();
         xPosition += distance;
-        draw();
+        draw();   // replaces the old image, keeping the shape's geometry
     }
 
     /**
@@ -92,9 +93,8 @@ public class Circle
      */
     public void moveVertical(int distance)
     {
-        erase();
         yPosition += distance;
-        draw();
+        draw();   // replaces the old image, keeping the shape's geometry
     }
 
     /**
@@ -102,23 +102,20 @@ public class Circle
      */
     public void slowMoveHorizontal(int distance)
     {
-        int delta;
-
-        if(distance < 0) 
-        {
-            delta = -1;
-            distance = -distance;
-        }
-        else 
-        {
-            delta = 1;
-        }
+        animateHorizontal(distance).waitUntilDone();
+    }
 
-        for(int i = 0; i < distance; i++)
-        {
+    /**
+     * Move the circle horizontally by 'distance' pixels, one pixel per frame,
+     * without waiting: the returned animation runs alongside others.
+     */
+    public Animation animateHorizontal(int distance)
+    {
+        final int delta = distance < 0 ? -1 : 1;
+        return Animator.getAnimator().animate(Math.abs(distance), () -> {
             xPosition += delta;
             draw();
-        }
+        });
     }
 
     /**
@@ -126,23 +123,20 @@ public class Circle
      */
     public void slowMoveVertical(int distance)
     {
-        int delta;
-
-        if(distance < 0) 
-        {
-            delta = -1;
-            distance = -distance;
-        }
-        else 
-        {
-            delta = 1;
-        }
+        animateVertical(distance).waitUntilDone();
+    }
 
-        for(int i = 0; i < distance; i++)
-        {
+    /**
+     * Move the circle vertically by 'distance' pixels, one pixel per frame,
+     * without waiting: the returned animation runs alongside others.
+     */
+    public Animation animateVertical(int distance)
+    {
+        final int delta = distance < 0 ? -1 : 1;
+        return Animator.getAnimator().animate(Math.abs(distance), () -> {
             yPosition += delta;
             draw();
-        }
+        });
     }
 
     /**
@@ -152,16 +146,18 @@ public class Circle
     {
         erase();
         diameter = newDiameter;
+        shape = new Ellipse2D.Double(0, 0, diameter, diameter);
         draw();
     }
 
     /**
      * Change the color. Valid colors are "red", "yellow", "blue", "green",
-     * "magenta" and "black".
+     * "magenta" and "black", names defined in Colors, and values such as
+     * "#ff8800" or "255,136,0".
      */
     public void changeColor(String newColor)
     {
-        color = newColor;
+        colorValue = Colors.get(newColor);
         draw();
     }
 
@@ -172,9 +168,7 @@ public class Circle
     {
         if(isVisible) {
             Canvas canvas = Canvas.getCanvas();
-            canvas.draw(this, color, new Ellipse2D.Double(xPosition, yPosition, 
-                                                          diameter, diameter));
-            canvas.wait(10);
+            canvas.draw(this, colorValue, shape, xPosition, yPosition);
         }
     }
 
@@ -1,10 +1,13 @@
+import java.awt.geom.Ellipse2D;
+
 /**
  * A cloud composed of multiple circles that can move together and draw itself on a canvas.
- * Demonstrates composition: a Cloud owns its Circle parts.
+ * Demonstrates composition: a Cloud owns its circle parts, kept in one Group,
+ * so the whole cloud is drawn and moved as one object.
  */
 public class Cloud
 {
-    private final Circle[] circles;
+    private final Group circles;
     private int xPosition;
     private int yPosition;
     private String color;
@@ -27,54 +30,38 @@ public class Cloud
         yPosition = y;
         color = "white";
 
-        circles = new Circle[4];
-        for(int i=0;i<circles.length;i++){
-            circles[i] = new Circle();
-            circles[i].changeColor(color);
-        }
+        circles = new Group(xPosition, yPosition);
         // Arrange circles relative to cloud origin (xPosition, yPosition)
         // Use different diameters and offsets to get a fluffy shape
         int[] baseSizes = { 40, 50, 36, 44 };
         int[] baseDx = { 0, 25, 50, 20 };
         int[] baseDy = { 0, -10, 0, 12 };
 
-        for(int i=0;i<circles.length;i++){
+        for(int i=0;i<baseSizes.length;i++){
             int size = (int)Math.round(baseSizes[i] * scale);
             int dx = (int)Math.round(baseDx[i] * scale);
             int dy = (int)Math.round(baseDy[i] * scale);
-            circles[i].changeSize(size);
-            // First move to cloud origin relative to default
-            circles[i].moveHorizontal(xPosition - 230); // Circle default x is 230
-            circles[i].moveVertical(yPosition - 90);    // Circle default y is 90
-            // Then apply relative offsets to shape the cloud
-            circles[i].moveHorizontal(dx);
-            circles[i].moveVertical(dy);
+            circles.add(new Ellipse2D.Double(dx, dy, size, size), color);
         }
     }
 
     /** Make this cloud visible. */
     public void makeVisible()
     {
-        for(Circle c : circles){
-            c.makeVisible();
-        }
+        circles.makeVisible();
     }
 
     /** Make this cloud invisible. */
     public void makeInvisible()
     {
-        for(Circle c : circles){
-            c.makeInvisible();
-        }
+        circles.makeInvisible();
     }
 
     /** Change the color of the whole cloud. */
     public void changeColor(String newColor)
     {
         color = newColor;
-        for(Circle c : circles){
-            c.changeColor(color);
-        }
+        circles.changeColor(color);
     }
 
     /** Set the absolute position of the cloud's origin. */
@@ -89,37 +76,21 @@ public class Cloud
     /** Move the cloud horizontally by the given distance. */
     public void moveHorizontal(int distance)
     {
-        for(Circle c : circles){
-            c.moveHorizontal(distance);
-        }
+        circles.moveHorizontal(distance);
         xPosition += distance;
     }
 
     /** Move the cloud vertically by the given distance. */
     public void moveVertical(int distance)
     {
-        for(Circle c : circles){
-            c.moveVertical(distance);
-        }
+        circles.moveVertical(distance);
         yPosition += distance;
     }
 
     /** Slowly move the cloud horizontally by the given distance. */
     public void slowMoveHorizontal(int distance)
     {
-        int delta;
-        if(distance < 0) {
-            delta = -1;
-            distance = -distance;
-        } else {
-            delta = 1;
-        }
-        for(int i = 0; i < distance; i++){
-            for(Circle c : circles){
-                c.moveHorizontal(delta);
-            }
-            xPosition += delta;
-        }
+        animateHorizontal(distance).waitUntilDone();
     }
 
     /**
@@ -127,41 +98,38 @@ public class Cloud
      */
     public void slowMoveHorizontal(int distance, int extraDelay)
     {
-        int delta;
-        if(distance < 0) {
-            delta = -1;
-            distance = -distance;
-        } else {
-            delta = 1;
-        }
-        for(int i = 0; i < distance; i++){
-            for(Circle c : circles){
-                c.moveHorizontal(delta);
-            }
-            xPosition += delta;
-            if(extraDelay > 0){
-                Canvas.getCanvas().wait(extraDelay);
-            }
-        }
+        animateHorizontal(distance, 1 + extraDelay / Animator.FRAME_MILLIS).waitUntilDone();
     }
 
     /** Slowly move the cloud vertically by the given distance. */
     public void slowMoveVertical(int distance)
     {
-        int delta;
-        if(distance < 0) {
-            delta = -1;
-            distance = -distance;
-        } else {
-            delta = 1;
-        }
-        for(int i = 0; i < distance; i++){
-            for(Circle c : circles){
-                c.moveVertical(delta);
-            }
-            yPosition += delta;
-        }
+        animateVertical(distance).waitUntilDone();
     }
-}
 
+    /**
+     * Move the cloud horizontally one pixel per frame without waiting.
+     */
+    public Animation animateHorizontal(int distance)
+    {
+        return animateHorizontal(distance, 1);
+    }
 
+    /**
+     * Move the cloud horizontally one pixel every 'framesPerPixel' frames
+     * without waiting (2 = half speed).
+     */
+    public Animation animateHorizontal(int distance, int framesPerPixel)
+    {
+        final int delta = distance < 0 ? -1 : 1;
+        return Animator.getAnimator().animate(Math.abs(distance), framesPerPixel,
+                                              () -> moveHorizontal(delta));
+    }
+
+    /** Move the cloud vertically one pixel per frame without waiting. */
+    public Animation animateVertical(int distance)
+    {
+        final int delta = distance < 0 ? -1 : 1;
+        return Animator.getAnimator().animate(Math.abs(distance), () -> moveVertical(delta));
+    }
+}
@@ -0,0 +1,121 @@
+import java.awt.Color;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry that turns color names into Color objects. A name is resolved
+ * once, when a shape's color is changed; drawing then only uses the Color
+ * object (no string comparison, no new Color per draw).
+ *
+ * Known are the shape colors ("red", "black", "blue", "yellow", "green",
+ * "magenta", "white"), names added with define(...), and values written
+ * as "#rrggbb", "#rgb" or "r,g,b". Equal values share one Color object.
+ * Unknown names are black, as before.
+ */
+public class Colors
+{
+    private static final Map<String, Color> named = new ConcurrentHashMap<String, Color>();
+    private static final Map<Integer, Color> byValue = new ConcurrentHashMap<Integer, Color>();
+
+    static {
+        define("red", new Color(235, 25, 25));
+        define("black", Color.black);
+        define("blue", new Color(30, 75, 220));
+        define("yellow", new Color(255, 230, 0));
+        define("green", new Color(80, 160, 60));
+        define("magenta", Color.magenta);
+        define("white", Color.white);
+    }
+
+    private Colors()
+    {
+    }
+
+    /**
+     * Return the color for a name or value; unknown names are black.
+     */
+    public static Color get(String colorString)
+    {
+        Color color = named.get(colorString);
+        if(color == null) {
+            color = parse(colorString);
+            if(color == null) {
+                color = Color.black;
+            }
+            named.putIfAbsent(colorString, color);   // next time without parsing
+        }
+        return color;
+    }
+
+    /**
+     * Add or replace a named color, e.g. for a user-defined palette.
+     * Shapes that already use the name keep their color until it is changed.
+     */
+    public static void define(String name, Color color)
+    {
+        named.put(name, intern(color));
+    }
+
+    /**
+     * Add or replace a named color given as "#rrggbb", "#rgb" or "r,g,b".
+     */
+    public static void define(String name, String value)
+    {
+        Color color = parse(value);
+        if(color == null) {
+            throw new IllegalArgumentException("not a color value: " + value);
+        }
+        named.put(name, color);
+    }
+
+    /**
+     * Add all colors of a palette (name -> value as for define).
+     */
+    public static void definePalette(Map<String, String> palette)
+    {
+        for(Map.Entry<String, String> entry : palette.entrySet()) {
+            define(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Return the shared Color object for the given value.
+     */
+    public static Color intern(Color color)
+    {
+        Color shared = byValue.putIfAbsent(color.getRGB(), color);
+        return shared == null ? color : shared;
+    }
+
+    /**
+     * Parse "#rrggbb", "#rgb" or "r,g,b"; null if it is none of them.
+     */
+    private static Color parse(String value)
+    {
+        try {
+            String text = value.trim();
+            if(text.startsWith("#") && text.length() == 7) {
+                return intern(new Color(Integer.parseInt(text.substring(1), 16)));
+            }
+            if(text.startsWith("#") && text.length() == 4) {
+                int r = Character.digit(text.charAt(1), 16);
+                int g = Character.digit(text.charAt(2), 16);
+                int b = Character.digit(text.charAt(3), 16);
+                if(r < 0 || g < 0 || b < 0) {
+                    return null;
+                }
+                return intern(new Color(r * 17, g * 17, b * 17));
+            }
+            String[] parts = text.split(",");
+            if(parts.length == 3) {
+                return intern(new Color(Integer.parseInt(parts[0].trim()),
+                                        Integer.parseInt(parts[1].trim()),
+                                        Integer.parseInt(parts[2].trim())));
+            }
+        }
+        catch(IllegalArgumentException e) {
+            // not a number, or out of range: not a color value
+        }
+        return null;
+    }
+}
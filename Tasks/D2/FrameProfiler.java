@@ -0,0 +1,341 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * Measures what the Canvas spends per frame: the whole frame, redrawing
+ * dirty areas, erasing shapes and painting the image on screen (Swing),
+ * the number of shapes on the canvas and drawn, the size of the dirty
+ * areas, and the frames that took longer than one frame length ("dropped":
+ * at the Animator's frame rate they miss their turn). Attach it with
+ * Canvas.setProfiler(...).
+ *
+ * Results: a text report with histograms (report()), a CSV file with one
+ * row per frame, written as the frames finish (startCsv(...)), and an
+ * overlay on the canvas window. Only the last RECENT_FRAMES rows are kept
+ * in memory, so the profiler can stay attached to a long animation.
+ * Changes outside a frame (drawing without Animator or beginFrame) and
+ * painting, which Swing does later, are counted with the next frame.
+ */
+public class FrameProfiler
+{
+    private static final String CSV_HEADER = "frame,frameMicros,redrawMicros,redraws,eraseMicros,"
+                                             + "paintMicros,shapes,shapesDrawn,dirtyPixels,dropped";
+    private static final int COLUMNS = 10;
+    private static final int RECENT_FRAMES = 1024;
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 160);
+
+    private final long budgetNanos;
+    private final Histogram frameTimes;
+    private final Histogram redrawTimes;
+    private final Histogram eraseTimes;
+    private final Histogram paintTimes;
+    private final long[] rows;   // ring of the last frames: the CSV columns, one after the other
+    private final StringBuilder line;
+    private PrintWriter csv;     // null: no CSV file
+    private int frames;
+    private long droppedFrames;
+    private long totalShapes;
+    private long maxShapes;
+    private long totalShapesDrawn;
+    private long totalDirtyPixels;
+    // the frame being measured
+    private long redrawNanos;
+    private int redraws;
+    private long eraseNanos;
+    private long paintNanos;
+    private long shapesDrawn;
+    private long dirtyPixels;
+
+    /**
+     * Create a profiler for the Animator's normal frame length.
+     */
+    public FrameProfiler()
+    {
+        this(Animator.FRAME_MILLIS);
+    }
+
+    /**
+     * Create a profiler; frames longer than 'frameMillis' count as dropped
+     * (0: none).
+     */
+    public FrameProfiler(double frameMillis)
+    {
+        if(frameMillis < 0) {
+            throw new IllegalArgumentException("frame length must be >= 0");
+        }
+        budgetNanos = (long)(frameMillis * 1_000_000);
+        frameTimes = new Histogram();
+        redrawTimes = new Histogram();
+        eraseTimes = new Histogram();
+        paintTimes = new Histogram();
+        rows = new long[RECENT_FRAMES * COLUMNS];
+        line = new StringBuilder();
+    }
+
+    /**
+     * Forget everything measured so far.
+     */
+    public synchronized void reset()
+    {
+        frameTimes.clear();
+        redrawTimes.clear();
+        eraseTimes.clear();
+        paintTimes.clear();
+        frames = 0;
+        droppedFrames = 0;
+        totalShapes = 0;
+        maxShapes = 0;
+        totalShapesDrawn = 0;
+        totalDirtyPixels = 0;
+        redrawNanos = 0;
+        redraws = 0;
+        eraseNanos = 0;
+        paintNanos = 0;
+        shapesDrawn = 0;
+        dirtyPixels = 0;
+    }
+
+    // ----- called by the Canvas -----
+
+    synchronized void redrawn(long nanos, long pixels, long drawn)
+    {
+        redrawNanos += nanos;
+        redraws++;
+        dirtyPixels += pixels;
+        shapesDrawn += drawn;
+    }
+
+    synchronized void erased(long nanos)
+    {
+        eraseNanos += nanos;
+    }
+
+    synchronized void painted(long nanos)
+    {
+        paintNanos += nanos;
+    }
+
+    synchronized void frameFinished(long frameNanos, int shapes)
+    {
+        boolean dropped = budgetNanos > 0 && frameNanos > budgetNanos;
+        int row = (frames % RECENT_FRAMES) * COLUMNS;
+        frames++;
+        rows[row] = frames;
+        rows[row + 1] = frameNanos / 1000;
+        rows[row + 2] = redrawNanos / 1000;
+        rows[row + 3] = redraws;
+        rows[row + 4] = eraseNanos / 1000;
+        rows[row + 5] = paintNanos / 1000;
+        rows[row + 6] = shapes;
+        rows[row + 7] = shapesDrawn;
+        rows[row + 8] = dirtyPixels;
+        rows[row + 9] = dropped ? 1 : 0;
+        frameTimes.add(frameNanos);
+        redrawTimes.add(redrawNanos);
+        eraseTimes.add(eraseNanos);
+        paintTimes.add(paintNanos);
+        if(dropped) {
+            droppedFrames++;
+        }
+        totalShapes += shapes;
+        maxShapes = Math.max(maxShapes, shapes);
+        if(csv != null) {
+            line.setLength(0);
+            for(int column = 0; column < COLUMNS; column++) {
+                if(column > 0) {
+                    line.append(',');
+                }
+                line.append(rows[row + column]);
+            }
+            csv.println(line);
+        }
+        totalShapesDrawn += shapesDrawn;
+        totalDirtyPixels += dirtyPixels;
+        redrawNanos = 0;
+        redraws = 0;
+        eraseNanos = 0;
+        paintNanos = 0;
+        shapesDrawn = 0;
+        dirtyPixels = 0;
+    }
+
+    // ----- results -----
+
+    public synchronized int getFrames()
+    {
+        return frames;
+    }
+
+    public synchronized long getDroppedFrames()
+    {
+        return droppedFrames;
+    }
+
+    /**
+     * Return a text report: times per frame (mean, percentiles, maximum),
+     * histograms of the frame and redraw times, shape counts, dirty pixels.
+     */
+    public synchronized String report()
+    {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%d frames, %d dropped (longer than %.1f ms)%n",
+                                  frames, droppedFrames, budgetNanos / 1e6));
+        if(frames == 0) {
+            return text.toString();
+        }
+        text.append(String.format("%-8s %9s %9s %9s %9s %9s   (microseconds per frame;%n",
+                                  "", "mean", "p50", "p95", "p99", "max"));
+        text.append(String.format("%-62s percentiles are the upper end of their bucket)%n", ""));
+        frameTimes.appendSummary(text, "frame");
+        redrawTimes.appendSummary(text, "redraw");
+        eraseTimes.appendSummary(text, "erase");
+        paintTimes.appendSummary(text, "paint");
+        text.append(String.format("shapes on the canvas: %.1f per frame, at most %d%n",
+                                  totalShapes / (double)frames, maxShapes));
+        text.append(String.format("shapes drawn: %.1f per frame%n", totalShapesDrawn / (double)frames));
+        text.append(String.format("dirty pixels: %.0f per frame%n", totalDirtyPixels / (double)frames));
+        text.append("frame time histogram:\n");
+        frameTimes.appendHistogram(text);
+        text.append("redraw time histogram:\n");
+        redrawTimes.appendHistogram(text);
+        return text.toString();
+    }
+
+    /**
+     * From now on write one line per frame (times in microseconds) to a CSV
+     * file, as each frame finishes. A file that is already open is closed.
+     */
+    public synchronized void startCsv(File file) throws IOException
+    {
+        stopCsv();
+        csv = new PrintWriter(file, "UTF-8");   // buffered: one write per few frames
+        csv.println(CSV_HEADER);
+    }
+
+    /**
+     * Close the CSV file (if one is open).
+     * @throws IOException  if a line could not be written
+     */
+    public synchronized void stopCsv() throws IOException
+    {
+        if(csv == null) {
+            return;
+        }
+        csv.close();
+        boolean failed = csv.checkError();
+        csv = null;
+        if(failed) {
+            throw new IOException("cannot write the CSV file");
+        }
+    }
+
+    /**
+     * Draw the overlay: the last frame and the recent frame times, in the
+     * top left corner of the window (not into the canvas image).
+     */
+    synchronized void drawOverlay(Graphics g)
+    {
+        String[] lines;
+        if(frames == 0) {
+            lines = new String[] { "no frames yet" };
+        }
+        else {
+            int last = ((frames - 1) % RECENT_FRAMES) * COLUMNS;
+            lines = new String[] {
+                String.format("frame %d: %.2f ms, redraw %.2f ms", frames,
+                              rows[last + 1] / 1000.0, rows[last + 2] / 1000.0),
+                String.format("p95 %.2f ms, dropped %d", frameTimes.percentile(95) / 1e6, droppedFrames),
+                String.format("shapes %d, drawn %d, dirty %d px", rows[last + 6], rows[last + 7], rows[last + 8])
+            };
+        }
+        g.setFont(OVERLAY_FONT);
+        int lineHeight = g.getFontMetrics().getHeight();
+        int width = 0;
+        for(String line : lines) {
+            width = Math.max(width, g.getFontMetrics().stringWidth(line));
+        }
+        g.setColor(OVERLAY_BACKGROUND);
+        g.fillRect(0, 0, width + 8, lines.length * lineHeight + 6);
+        g.setColor(Color.white);
+        for(int i = 0; i < lines.length; i++) {
+            g.drawString(lines[i], 4, 3 + (i + 1) * lineHeight - g.getFontMetrics().getDescent());
+        }
+    }
+
+    /**
+     * Durations in buckets that double in size (below 1, 2, 4, ... microseconds).
+     */
+    private static class Histogram
+    {
+        private static final int BUCKETS = 32;
+
+        private final long[] counts = new long[BUCKETS];
+        private long count;
+        private long total;
+        private long max;
+
+        void add(long nanos)
+        {
+            long micros = nanos / 1000;
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            counts[bucket]++;
+            count++;
+            total += nanos;
+            max = Math.max(max, nanos);
+        }
+
+        void clear()
+        {
+            Arrays.fill(counts, 0);
+            count = 0;
+            total = 0;
+            max = 0;
+        }
+
+        /**
+         * Return the upper end of the bucket that contains the given
+         * percentile, in nanoseconds (at most the maximum).
+         */
+        long percentile(double percent)
+        {
+            long needed = (long)Math.ceil(count * percent / 100);
+            long seen = 0;
+            for(int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += counts[bucket];
+                if(seen >= needed && seen > 0) {
+                    return Math.min(max, (1L << bucket) * 1000);
+                }
+            }
+            return max;
+        }
+
+        void appendSummary(StringBuilder text, String label)
+        {
+            text.append(String.format("%-8s %9.1f %9.1f %9.1f %9.1f %9.1f%n", label,
+                                      count == 0 ? 0 : total / 1e3 / count, percentile(50) / 1e3,
+                                      percentile(95) / 1e3, percentile(99) / 1e3, max / 1e3));
+        }
+
+        void appendHistogram(StringBuilder text)
+        {
+            long largest = 1;
+            for(long c : counts) {
+                largest = Math.max(largest, c);
+            }
+            for(int bucket = 0; bucket < BUCKETS; bucket++) {
+                if(counts[bucket] == 0) {
+                    continue;
+                }
+                String range = bucket == 0 ? "< 1 us" : String.format("< %d us", 1L << bucket);
+                text.append(String.format("  %12s %8d %s%n", range, counts[bucket],
+                                          "#".repeat((int)(counts[bucket] * 40 / largest))));
+            }
+        }
+    }
+}
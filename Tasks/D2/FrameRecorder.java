@@ -0,0 +1,61 @@
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Saves every n-th finished frame of the canvas as a numbered PNG file
+ * (frame-00001.png, frame-00002.png, ...), e.g. to record an animation on
+ * a headless machine. Register it with Canvas.addFrameListener(...).
+ */
+public class FrameRecorder implements Canvas.FrameListener
+{
+    private final File directory;
+    private final int everyNth;
+    private int savedFrames;
+    private IOException error;
+
+    /**
+     * Create a recorder that saves every 'everyNth' frame into 'directory'.
+     */
+    public FrameRecorder(File directory, int everyNth)
+    {
+        if(everyNth < 1) {
+            throw new IllegalArgumentException("everyNth must be >= 1");
+        }
+        if(!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("cannot create directory " + directory);
+        }
+        this.directory = directory;
+        this.everyNth = everyNth;
+    }
+
+    @Override
+    public void frameFinished(Canvas canvas, long frameNumber)
+    {
+        if(frameNumber % everyNth != 0 || error != null) {
+            return;
+        }
+        try {
+            canvas.writePng(new File(directory, String.format("frame-%05d.png", savedFrames + 1)));
+            savedFrames++;
+        }
+        catch(IOException e) {
+            error = e;   // stop recording, but do not stop the animation
+        }
+    }
+
+    /**
+     * Number of frames saved so far.
+     */
+    public int getSavedFrames()
+    {
+        return savedFrames;
+    }
+
+    /**
+     * The first error while saving, or null.
+     */
+    public IOException getError()
+    {
+        return error;
+    }
+}
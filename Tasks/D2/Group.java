@@ -0,0 +1,184 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A group of shapes that is drawn and moved as one object (a node of a
+ * simple scene graph). The member shapes are given in the group's own
+ * coordinates; the group's position is the only transform.
+ *
+ * The members are rasterized once into a cached, transparent layer. Moving
+ * the group only changes where the layer is drawn: one redraw per move,
+ * however many shapes the group has. The layer is rebuilt only when a
+ * member or a color changes.
+ */
+public class Group
+{
+    private final List<Shape> shapes;
+    private final List<Color> colors;
+    private int xPosition;
+    private int yPosition;
+    private boolean isVisible;
+    private BufferedImage layer;    // null = must be rebuilt
+    private Rectangle layerBounds;  // in group coordinates
+
+    /**
+     * Create an empty group with its origin at the given canvas position.
+     */
+    public Group(int x, int y)
+    {
+        shapes = new ArrayList<Shape>();
+        colors = new ArrayList<Color>();
+        xPosition = x;
+        yPosition = y;
+    }
+
+    /**
+     * Add a shape, given relative to the group's origin. Later shapes are
+     * drawn on top of earlier ones.
+     */
+    public void add(Shape shape, String color)
+    {
+        shapes.add(shape);
+        colors.add(Colors.get(color));
+        layer = null;
+        draw();
+    }
+
+    /**
+     * Change the color of all member shapes.
+     */
+    public void changeColor(String newColor)
+    {
+        Color color = Colors.get(newColor);
+        for(int i = 0; i < colors.size(); i++) {
+            colors.set(i, color);
+        }
+        layer = null;
+        draw();
+    }
+
+    /**
+     * Make this group visible. If it was already visible, do nothing.
+     */
+    public void makeVisible()
+    {
+        isVisible = true;
+        draw();
+    }
+
+    /**
+     * Make this group invisible. If it was already invisible, do nothing.
+     */
+    public void makeInvisible()
+    {
+        erase();
+        isVisible = false;
+    }
+
+    /**
+     * Set the canvas position of the group's origin.
+     */
+    public void setPosition(int x, int y)
+    {
+        xPosition = x;
+        yPosition = y;
+        draw();
+    }
+
+    /**
+     * Move the group horizontally by 'distance' pixels.
+     */
+    public void moveHorizontal(int distance)
+    {
+        xPosition += distance;
+        draw();
+    }
+
+    /**
+     * Move the group vertically by 'distance' pixels.
+     */
+    public void moveVertical(int distance)
+    {
+        yPosition += distance;
+        draw();
+    }
+
+    /**
+     * Move the group horizontally one pixel every 'framesPerPixel' frames,
+     * without waiting.
+     */
+    public Animation animateHorizontal(int distance, int framesPerPixel)
+    {
+        final int delta = distance < 0 ? -1 : 1;
+        return Animator.getAnimator().animate(Math.abs(distance), framesPerPixel,
+                                              () -> moveHorizontal(delta));
+    }
+
+    /**
+     * Move the group vertically one pixel every 'framesPerPixel' frames,
+     * without waiting.
+     */
+    public Animation animateVertical(int distance, int framesPerPixel)
+    {
+        final int delta = distance < 0 ? -1 : 1;
+        return Animator.getAnimator().animate(Math.abs(distance), framesPerPixel,
+                                              () -> moveVertical(delta));
+    }
+
+    public int getX()
+    {
+        return xPosition;
+    }
+
+    public int getY()
+    {
+        return yPosition;
+    }
+
+    /**
+     * Draw the group's layer at its current position.
+     */
+    private void draw()
+    {
+        if(isVisible && !shapes.isEmpty()) {
+            if(layer == null) {
+                rasterize();
+            }
+            Canvas.getCanvas().drawLayer(this, layer, xPosition + layerBounds.x,
+                                         yPosition + layerBounds.y);
+        }
+    }
+
+    /**
+     * Erase the group on screen.
+     */
+    private void erase()
+    {
+        if(isVisible) {
+            Canvas.getCanvas().erase(this);
+        }
+    }
+
+    /**
+     * Render all member shapes into a new transparent layer.
+     */
+    private void rasterize()
+    {
+        layerBounds = shapes.get(0).getBounds();
+        for(Shape shape : shapes) {
+            layerBounds.add(shape.getBounds());
+        }
+        layerBounds.grow(1, 1);
+        layer = new BufferedImage(layerBounds.width, layerBounds.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = layer.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        g.translate(-layerBounds.x, -layerBounds.y);
+        for(int i = 0; i < shapes.size(); i++) {
+            g.setColor(colors.get(i));
+            g.fill(shapes.get(i));
+        }
+        g.dispose();
+    }
+}
@@ -0,0 +1,169 @@
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Moves many circles, squares, triangles and persons, spread over a large
+ * area, by one pixel per frame on a headless canvas. Reports time and
+ * allocated bytes per move (the draw calls, without the redraw at the
+ * end of the frame) and per frame. For comparison the same moves are made
+ * the old way, building new geometry at the new position for every move.
+ *
+ * Usage: java MoveBenchmark [shapes] [frames]
+ */
+public class MoveBenchmark
+{
+    public static void main(String[] args)
+    {
+        System.setProperty("java.awt.headless", "true");
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        Canvas canvas = Canvas.getCanvas();
+        Random random = new Random(7);
+        int[] x = new int[count];
+        int[] y = new int[count];
+        for(int i = 0; i < count; i++) {
+            x[i] = random.nextInt(5000) - 2300;   // mostly outside the visible canvas
+            y[i] = random.nextInt(3000) - 1400;
+        }
+
+        // the shape classes: geometry is kept, a move only changes the position
+        Object[] shapes = new Object[count];
+        for(int i = 0; i < count; i++) {
+            switch(i % 4) {
+                case 0: shapes[i] = new Circle(); break;
+                case 1: shapes[i] = new Square(); break;
+                case 2: shapes[i] = new Triangle(); break;
+                default: shapes[i] = new Person(); break;
+            }
+            move(shapes[i], x[i], y[i]);   // still invisible: nothing is drawn
+        }
+        canvas.beginFrame();
+        for(Object shape : shapes) {
+            makeVisible(shape);
+        }
+        canvas.endFrame();
+        for(int round = 0; round < 3; round++) {
+            long moveNanos = 0;
+            long moveBytes = 0;
+            long start = System.nanoTime();
+            long bytes = mx.getThreadAllocatedBytes(thread);
+            for(int frame = 0; frame < frames; frame++) {
+                long moveStart = System.nanoTime();
+                long moveBytesStart = mx.getThreadAllocatedBytes(thread);
+                canvas.beginFrame();
+                for(Object shape : shapes) {
+                    moveHorizontal(shape, frame % 100 < 50 ? 1 : -1);
+                }
+                moveBytes += mx.getThreadAllocatedBytes(thread) - moveBytesStart;
+                moveNanos += System.nanoTime() - moveStart;
+                canvas.endFrame();
+            }
+            long nanos = System.nanoTime() - start;
+            bytes = mx.getThreadAllocatedBytes(thread) - bytes;
+            report("Cached geometry:   ", round, moveNanos, moveBytes, nanos, bytes, count, frames);
+        }
+        canvas.clear();
+
+        // the old way: new geometry at the new position for every move
+        Object[] objects = new Object[count];
+        for(int i = 0; i < count; i++) {
+            objects[i] = new Object();
+            x[i] += 230;
+            y[i] += 90;
+        }
+        Color color = Colors.get("blue");
+        for(int round = 0; round < 3; round++) {
+            long moveNanos = 0;
+            long moveBytes = 0;
+            long start = System.nanoTime();
+            long bytes = mx.getThreadAllocatedBytes(thread);
+            for(int frame = 0; frame < frames; frame++) {
+                long moveStart = System.nanoTime();
+                long moveBytesStart = mx.getThreadAllocatedBytes(thread);
+                canvas.beginFrame();
+                for(int i = 0; i < count; i++) {
+                    x[i] += frame % 100 < 50 ? 1 : -1;
+                    Shape shape;
+                    switch(i % 3) {
+                        case 0: shape = new Ellipse2D.Double(x[i], y[i], 68, 68); break;
+                        case 1: shape = new Rectangle(x[i], y[i], 60, 60); break;
+                        default: shape = new Polygon(new int[] { x[i], x[i] + 35, x[i] - 35 },
+                                                     new int[] { y[i], y[i] + 60, y[i] + 60 }, 3); break;
+                    }
+                    canvas.draw(objects[i], color, shape);
+                }
+                moveBytes += mx.getThreadAllocatedBytes(thread) - moveBytesStart;
+                moveNanos += System.nanoTime() - moveStart;
+                canvas.endFrame();
+            }
+            long nanos = System.nanoTime() - start;
+            bytes = mx.getThreadAllocatedBytes(thread) - bytes;
+            report("New geometry/move: ", round, moveNanos, moveBytes, nanos, bytes, count, frames);
+        }
+    }
+
+    private static void makeVisible(Object shape)
+    {
+        if(shape instanceof Circle) {
+            ((Circle)shape).makeVisible();
+        }
+        else if(shape instanceof Square) {
+            ((Square)shape).makeVisible();
+        }
+        else if(shape instanceof Triangle) {
+            ((Triangle)shape).makeVisible();
+        }
+        else {
+            ((Person)shape).makeVisible();
+        }
+    }
+
+    private static void move(Object shape, int dx, int dy)
+    {
+        if(shape instanceof Circle) {
+            ((Circle)shape).moveHorizontal(dx);
+            ((Circle)shape).moveVertical(dy);
+        }
+        else if(shape instanceof Square) {
+            ((Square)shape).moveHorizontal(dx);
+            ((Square)shape).moveVertical(dy);
+        }
+        else if(shape instanceof Triangle) {
+            ((Triangle)shape).moveHorizontal(dx);
+            ((Triangle)shape).moveVertical(dy);
+        }
+        else {
+            ((Person)shape).moveHorizontal(dx);
+            ((Person)shape).moveVertical(dy);
+        }
+    }
+
+    private static void moveHorizontal(Object shape, int distance)
+    {
+        if(shape instanceof Circle) {
+            ((Circle)shape).moveHorizontal(distance);
+        }
+        else if(shape instanceof Square) {
+            ((Square)shape).moveHorizontal(distance);
+        }
+        else if(shape instanceof Triangle) {
+            ((Triangle)shape).moveHorizontal(distance);
+        }
+        else {
+            ((Person)shape).moveHorizontal(distance);
+        }
+    }
+
+    private static void report(String label, int round, long moveNanos, long moveBytes,
+                               long nanos, long bytes, int count, int frames)
+    {
+        long moves = (long)count * frames;
+        System.out.printf("%sround %d: %.0f ns, %d bytes per move; %.2f ms, %d KB per frame with redraw%n",
+                          label, round + 1, moveNanos / (double)moves, moveBytes / moves,
+                          nanos / 1e6 / frames, bytes / frames / 1024);
+    }
+}
@@ -13,7 +13,8 @@ public class Person
     private int width;
     private int xPosition;
     private int yPosition;
-    private String color;
+    private Color colorValue;   // looked up once per color change, not per draw
+    private Shape shape;        // at (0, 0); built again only when the size changes
     private boolean isVisible;
 
     /**
@@ -25,7 +26,8 @@ public class Person
         width = 30;
         xPosition = 280;
         yPosition = 190;
-        color = "black";
+        colorValue = Colors.get("black");
+        shape = createShape();
         isVisible = false;
     }
 
@@ -84,9 +86,8 @@ public class Person
      */
     public void moveHorizontal(int distance)
     {
-        erase();
         xPosition += distance;
-        draw();
+        draw();   // replaces the old image, keeping the shape's geometry
     }
 
     /**
@@ -94,9 +95,8 @@ public class Person
      */
     public void moveVertical(int distance)
     {
-        erase();
         yPosition += distance;
-        draw();
+        draw();   // replaces the old image, keeping the shape's geometry
     }
 
     /**
@@ -104,23 +104,20 @@ public class Person
      */
     public void slowMoveHorizontal(int distance)
     {
-        int delta;
-
-        if(distance < 0) 
-        {
-            delta = -1;
-            distance = -distance;
-        }
-        else 
-        {
-            delta = 1;
-        }
+        animateHorizontal(distance).waitUntilDone();
+    }
 
-        for(int i = 0; i < distance; i++)
-        {
+    /**
+     * Move the person horizontally by 'distance' pixels, one pixel per frame,
+     * without waiting: the returned animation runs alongside others.
+     */
+    public Animation animateHorizontal(int distance)
+    {
+        final int delta = distance < 0 ? -1 : 1;
+        return Animator.getAnimator().animate(Math.abs(distance), () -> {
             xPosition += delta;
             draw();
-        }
+        });
     }
 
     /**
@@ -128,23 +125,20 @@ public class Person
      */
     public void slowMoveVertical(int distance)
     {
-        int delta;
-
-        if(distance < 0) 
-        {
-            delta = -1;
-            distance = -distance;
-        }
-        else 
-        {
-            delta = 1;
-        }
+        animateVertical(distance).waitUntilDone();
+    }
 
-        for(int i = 0; i < distance; i++)
-        {
+    /**
+     * Move the person vertically by 'distance' pixels, one pixel per frame,
+     * without waiting: the returned animation runs alongside others.
+     */
+    public Animation animateVertical(int distance)
+    {
+        final int delta = distance < 0 ? -1 : 1;
+        return Animator.getAnimator().animate(Math.abs(distance), () -> {
             yPosition += delta;
             draw();
-        }
+        });
     }
 
     /**
@@ -155,16 +149,18 @@ public class Person
         erase();
         height = newHeight;
         width = newWidth;
+        shape = createShape();
         draw();
     }
 
     /**
      * Change the color. Valid colors are "red", "yellow", "blue", "green",
-     * "magenta" and "black".
+     * "magenta" and "black", names defined in Colors, and values such as
+     * "#ff8800" or "255,136,0".
      */
     public void changeColor(String newColor)
     {
-        color = newColor;
+        colorValue = Colors.get(newColor);
         draw();
     }
 
@@ -173,26 +169,33 @@ public class Person
      */
     private void draw()
     {
-        int bh = (int)(height * 0.7);  // body height
-        int hh = (height - bh) / 2;  // half head height
-        int hw = width / 2;  // half width
-        int x = xPosition;
-        int y = yPosition;
         if(isVisible) {
             Canvas canvas = Canvas.getCanvas();
-            int[] xpoints = { x-3, x-hw, x-hw, x-(int)(hw*0.2)-1, x-(int)(hw*0.2)-1, x-hw, 
-                              x-hw+(int)(hw*0.4)+1, x, x+hw-(int)(hw*0.4)-1, x+hw, x+(int)(hw*0.2)+1, 
-                              x+(int)(hw*0.2)+1, x+hw, x+hw, x+3, x+(int)(hw*0.6), 
-                              x+(int)(hw*0.6), x+3, x-3, x-(int)(hw*0.6), x-(int)(hw*0.6) };
-            int[] ypoints = { y, y+(int)(bh*0.2), y+(int)(bh*0.4), y+(int)(bh*0.2), 
-                              y+(int)(bh*0.5), y+bh, y+bh, y+(int)(bh*0.65), y+bh, y+bh, 
-                              y+(int)(bh*0.5), y+(int)(bh*0.2), y+(int)(bh*0.4), y+(int)(bh*0.2), 
-                              y, y-hh+3, y-hh-3, y-hh-hh, y-hh-hh, y-hh-3, y-hh+3 };
-            canvas.draw(this, color, new Polygon(xpoints, ypoints, 21));
-            canvas.wait(10);
+            canvas.draw(this, colorValue, shape, xPosition, yPosition);
         }
     }
 
+    /**
+     * Build the outline for the current size, with the neck at (0, 0).
+     */
+    private Shape createShape()
+    {
+        int bh = (int)(height * 0.7);  // body height
+        int hh = (height - bh) / 2;  // half head height
+        int hw = width / 2;  // half width
+        int x = 0;
+        int y = 0;
+        int[] xpoints = { x-3, x-hw, x-hw, x-(int)(hw*0.2)-1, x-(int)(hw*0.2)-1, x-hw, 
+                          x-hw+(int)(hw*0.4)+1, x, x+hw-(int)(hw*0.4)-1, x+hw, x+(int)(hw*0.2)+1, 
+                          x+(int)(hw*0.2)+1, x+hw, x+hw, x+3, x+(int)(hw*0.6), 
+                          x+(int)(hw*0.6), x+3, x-3, x-(int)(hw*0.6), x-(int)(hw*0.6) };
+        int[] ypoints = { y, y+(int)(bh*0.2), y+(int)(bh*0.4), y+(int)(bh*0.2), 
+                          y+(int)(bh*0.5), y+bh, y+bh, y+(int)(bh*0.65), y+bh, y+bh, 
+                          y+(int)(bh*0.5), y+(int)(bh*0.2), y+(int)(bh*0.4), y+(int)(bh*0.2), 
+                          y, y-hh+3, y-hh-3, y-hh-hh, y-hh-hh, y-hh-3, y-hh+3 };
+        return new Polygon(xpoints, ypoints, 21);
+    }
+
     /**
      * Erase the person on screen.
      */
@@ -72,17 +72,12 @@ public class Picture
         cloud.makeVisible();
         smallCloud.makeVisible();
 
-        int totalSteps = 420;
-        for(int step = 0; step < totalSteps; step++){
-            if(step < 360){
-                cloud.moveHorizontal(1);
-            }
-            // move smaller cloud every other step for slower effect
-            if(step < 420 && step % 2 == 0){
-                smallCloud.moveHorizontal(1);
-            }
-            Canvas.getCanvas().wait(10);
-        }
+        // both run on the animator at the same time, one repaint per frame
+        Animation bigMove = cloud.animateHorizontal(360);
+        // move smaller cloud every other frame for slower effect
+        Animation smallMove = smallCloud.animateHorizontal(210, 2);
+        bigMove.waitUntilDone();
+        smallMove.waitUntilDone();
 
         // After the cloud passes, move a person towards the house (aggregation)
         person = new Person();
@@ -0,0 +1,50 @@
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Renders the Picture scene headless, with frames computed back to back,
+ * and reports the frames per second. Optionally saves every n-th frame as
+ * PNG (FrameRecorder) to show the cost of batch export.
+ *
+ * Usage: java PictureBenchmark [runs] [pngDirectory] [everyNth]
+ */
+public class PictureBenchmark
+{
+    public static void main(String[] args) throws IOException
+    {
+        System.setProperty("java.awt.headless", "true");
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        File directory = args.length > 1 ? new File(args[1]) : null;
+        int everyNth = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        Animator.getAnimator().setFrameMillis(0);
+        Canvas canvas = Canvas.getCanvas();
+        FrameRecorder recorder = null;
+        if(directory != null) {
+            recorder = new FrameRecorder(directory, everyNth);
+            canvas.addFrameListener(recorder);
+        }
+
+        for(int run = 1; run <= runs; run++) {
+            canvas.clear();
+            long framesBefore = canvas.getFrameCount();
+            long start = System.nanoTime();
+            new Picture().draw();
+            long nanos = System.nanoTime() - start;
+            long frames = canvas.getFrameCount() - framesBefore;
+            System.out.printf("Run %d: %d frames in %.0f ms = %.0f frames/s%n",
+                              run, frames, nanos / 1e6, frames / (nanos / 1e9));
+        }
+        if(recorder != null) {
+            if(recorder.getError() != null) {
+                throw recorder.getError();
+            }
+            System.out.println(recorder.getSavedFrames() + " PNG files in " + directory);
+        }
+        else {
+            File last = new File("picture.png");
+            canvas.writePng(last);
+            System.out.println("Last frame saved as " + last.getAbsolutePath());
+        }
+    }
+}
@@ -0,0 +1,480 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A scene script: a picture and its animation as lines of text, which can
+ * be loaded once and played any number of times, or streamed (each line
+ * is run as soon as it is read). The script drives the shapes through
+ * their normal methods, so a scene looks the same as when the calls are
+ * made by hand.
+ *
+ * Playing is frame-exact and independent of the Animator's timer: the
+ * same script always gives the same frames, at any speed. Speed 1 uses
+ * the Animator's normal frame length, 2 is twice as fast, 0 computes the
+ * frames back to back (e.g. for benchmarks or to record every frame).
+ *
+ * One command per line; '#' starts a comment:
+ *
+ *   new sun circle                 create a shape: circle, square, triangle,
+ *   new cloud cloud 20 30 0.7      person, cloud (with constructor arguments)
+ *   sun changeColor yellow         call a method of a shape: makeVisible,
+ *   sun moveHorizontal 100         makeInvisible, moveHorizontal, moveVertical,
+ *                                  changeSize, changeColor, setPosition (only
+ *                                  these: slowMove... would draw its own frames)
+ *   animate cloud horizontal 360   start moving by one pixel per frame (vertical
+ *   animate sun vertical -40 2     too); an optional number of frames per pixel
+ *   wait                           draw frames until all animations are done
+ *   frames 50                      draw 50 frames (a pause if nothing moves)
+ *   clear                          remove everything from the canvas
+ *
+ * All changes between two frame commands are drawn as one frame.
+ */
+public class Scene
+{
+    private static final Map<String, Class<?>> SHAPE_TYPES = new HashMap<String, Class<?>>();
+    // methods that change a shape at once; everything else is rejected, so replay stays frame-exact
+    private static final Set<String> METHODS = new TreeSet<String>(Arrays.asList(
+        "makeVisible", "makeInvisible", "moveHorizontal", "moveVertical", "changeSize", "changeColor", "setPosition"));
+
+    static {
+        SHAPE_TYPES.put("circle", Circle.class);
+        SHAPE_TYPES.put("square", Square.class);
+        SHAPE_TYPES.put("triangle", Triangle.class);
+        SHAPE_TYPES.put("person", Person.class);
+        SHAPE_TYPES.put("cloud", Cloud.class);
+    }
+
+    private final List<Command> commands;
+
+    private Scene(List<Command> commands)
+    {
+        this.commands = commands;
+    }
+
+    /**
+     * Read and check a whole script file.
+     * @throws IllegalArgumentException  if a line is not a valid command
+     */
+    public static Scene load(File file) throws IOException
+    {
+        try(Reader reader = new FileReader(file)) {
+            return load(reader);
+        }
+    }
+
+    /**
+     * Read and check a whole script.
+     * @throws IllegalArgumentException  if a line is not a valid command
+     */
+    public static Scene load(Reader script) throws IOException
+    {
+        Parser parser = new Parser();
+        List<Command> commands = new ArrayList<Command>();
+        BufferedReader lines = new BufferedReader(script);
+        String line;
+        while((line = lines.readLine()) != null) {
+            Command command = parser.parse(line);
+            if(command != null) {
+                commands.add(command);
+            }
+        }
+        return new Scene(commands);
+    }
+
+    /**
+     * Play a script while reading it, without keeping it in memory (for
+     * long or generated scripts).
+     * @return  the number of frames drawn
+     */
+    public static long stream(Reader script, double speed) throws IOException
+    {
+        Parser parser = new Parser();
+        Player player = new Player(speed);
+        BufferedReader lines = new BufferedReader(script);
+        try {
+            String line;
+            while((line = lines.readLine()) != null) {
+                Command command = parser.parse(line);
+                if(command != null) {
+                    player.run(command);
+                }
+            }
+        }
+        finally {
+            player.finish();   // also after an error: the canvas must not stay inside a frame
+        }
+        return player.frames;
+    }
+
+    /**
+     * Play the scene with new shapes, at the given speed (0: as fast as
+     * possible), and return when it is finished.
+     * @return  the number of frames drawn
+     */
+    public long play(double speed)
+    {
+        Player player = new Player(speed);
+        try {
+            for(Command command : commands) {
+                player.run(command);
+            }
+        }
+        finally {
+            player.finish();   // also after an error: the canvas must not stay inside a frame
+        }
+        return player.frames;
+    }
+
+    /**
+     * Number of commands in the scene.
+     */
+    public int size()
+    {
+        return commands.size();
+    }
+
+    /**
+     * One line of the script, ready to run.
+     */
+    private interface Command
+    {
+        void run(Player player);
+    }
+
+    /**
+     * Turns lines into commands. Remembers the type of every named shape,
+     * so that calls can be checked before the scene is played.
+     */
+    private static class Parser
+    {
+        private final Map<String, Class<?>> types = new HashMap<String, Class<?>>();
+        private int lineNumber;
+
+        /**
+         * Return the command of a line, or null for empty and comment lines.
+         */
+        Command parse(String line)
+        {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            String text = (comment < 0 ? line : line.substring(0, comment)).trim();
+            if(text.isEmpty()) {
+                return null;
+            }
+            String[] words = text.split("\\s+");
+            final int number = lineNumber;
+            switch(words[0]) {
+                case "new":
+                    return parseNew(words);
+                case "animate":
+                    return parseAnimate(words);
+                case "wait":
+                    expectWords(words, 1, 1);
+                    return player -> player.waitForAnimations();
+                case "frames":
+                    expectWords(words, 2, 2);
+                    final int frames = toInt(words[1]);
+                    return player -> player.frames(frames);
+                case "clear":
+                    expectWords(words, 1, 1);
+                    return player -> player.clear();
+                default:
+                    Class<?> type = typeOf(words[0]);
+                    expectWords(words, 2, Integer.MAX_VALUE);
+                    if(!METHODS.contains(words[1])) {
+                        throw error("'" + words[1] + "' is not a scene command; shapes accept " + String.join(", ", METHODS));
+                    }
+                    Method method = (Method)find(type.getMethods(), words[1], words);
+                    final Object[] arguments = convert(method, words, 2);
+                    final String name = words[0];
+                    return player -> player.call(number, player.get(number, name), method, arguments);
+            }
+        }
+
+        private Command parseNew(String[] words)
+        {
+            expectWords(words, 3, Integer.MAX_VALUE);
+            Class<?> type = SHAPE_TYPES.get(words[2]);
+            if(type == null) {
+                throw error("unknown shape type '" + words[2] + "'");
+            }
+            Constructor<?> constructor = (Constructor<?>)find(type.getConstructors(), null, words);
+            final Object[] arguments = convert(constructor, words, 3);
+            final String name = words[1];
+            final int number = lineNumber;
+            types.put(name, type);
+            return player -> player.create(number, name, constructor, arguments);
+        }
+
+        private Command parseAnimate(String[] words)
+        {
+            expectWords(words, 4, 5);
+            String direction = words[2];
+            if(!direction.equals("horizontal") && !direction.equals("vertical")) {
+                throw error("direction must be 'horizontal' or 'vertical'");
+            }
+            final Method move;
+            try {
+                move = typeOf(words[1]).getMethod(direction.equals("horizontal") ? "moveHorizontal"
+                                                                                  : "moveVertical", int.class);
+            }
+            catch(NoSuchMethodException e) {
+                throw error("'" + words[1] + "' cannot move " + direction);
+            }
+            final int distance = toInt(words[3]);
+            final int framesPerPixel = words.length > 4 ? toInt(words[4]) : 1;
+            if(framesPerPixel < 1) {
+                throw error("frames per pixel must be >= 1");
+            }
+            final String name = words[1];
+            final int number = lineNumber;
+            return player -> player.animate(number, player.get(number, name), move, distance, framesPerPixel);
+        }
+
+        private Class<?> typeOf(String name)
+        {
+            Class<?> type = types.get(name);
+            if(type == null) {
+                throw error("unknown command or shape '" + name + "'");
+            }
+            return type;
+        }
+
+        /**
+         * Find the method or constructor with the given name (null for a
+         * constructor) that takes the remaining words as arguments.
+         */
+        private Executable find(Executable[] candidates, String name, String[] words)
+        {
+            int first = name == null ? 3 : 2;
+            int count = words.length - first;
+            for(Executable candidate : candidates) {
+                if((name == null || candidate.getName().equals(name))
+                   && candidate.getParameterCount() == count
+                   && candidate.getDeclaringClass() != Object.class
+                   && accepts(candidate, words, first)) {
+                    return candidate;
+                }
+            }
+            throw error("no " + (name == null ? "constructor" : "method '" + name + "'")
+                        + " for the arguments '" + String.join(" ", Arrays.copyOfRange(words, first, words.length)) + "'");
+        }
+
+        private boolean accepts(Executable candidate, String[] words, int first)
+        {
+            Class<?>[] parameters = candidate.getParameterTypes();
+            for(int i = 0; i < parameters.length; i++) {
+                if(parameters[i] == int.class && !words[first + i].matches("[-+]?\\d+")) {
+                    return false;
+                }
+                if(parameters[i] == double.class && !words[first + i].matches("[-+]?\\d*\\.?\\d+")) {
+                    return false;
+                }
+                if(parameters[i] != int.class && parameters[i] != double.class && parameters[i] != String.class) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Object[] convert(Executable target, String[] words, int first)
+        {
+            Class<?>[] parameters = target.getParameterTypes();
+            Object[] arguments = new Object[parameters.length];
+            for(int i = 0; i < parameters.length; i++) {
+                String word = words[first + i];
+                if(parameters[i] == int.class) {
+                    arguments[i] = toInt(word);
+                }
+                else if(parameters[i] == double.class) {
+                    arguments[i] = Double.parseDouble(word);
+                }
+                else {
+                    arguments[i] = word;
+                }
+            }
+            return arguments;
+        }
+
+        private int toInt(String word)
+        {
+            try {
+                return Integer.parseInt(word);
+            }
+            catch(NumberFormatException e) {
+                throw error("not a whole number: " + word);
+            }
+        }
+
+        private void expectWords(String[] words, int min, int max)
+        {
+            if(words.length < min || words.length > max) {
+                throw error("wrong number of arguments for '" + words[0] + "'");
+            }
+        }
+
+        private IllegalArgumentException error(String message)
+        {
+            return new IllegalArgumentException("line " + lineNumber + ": " + message);
+        }
+    }
+
+    /**
+     * Runs commands on the canvas: keeps the named shapes and the running
+     * animations, and draws the frames.
+     */
+    private static class Player
+    {
+        private final Canvas canvas;
+        private final Map<String, Object> shapes;
+        private final List<Animation> animations;
+        private final long frameNanos;   // 0: no waiting between frames
+        private long nextFrame;
+        private boolean inFrame;
+        private long frames;
+
+        Player(double speed)
+        {
+            canvas = Canvas.getCanvas();
+            shapes = new HashMap<String, Object>();
+            animations = new ArrayList<Animation>();
+            frameNanos = speed <= 0 ? 0 : (long)(Animator.FRAME_MILLIS * 1_000_000L / speed);
+            nextFrame = System.nanoTime();
+        }
+
+        void run(Command command)
+        {
+            if(!inFrame) {
+                canvas.beginFrame();   // everything up to the next frame command at once
+                inFrame = true;
+            }
+            command.run(this);
+        }
+
+        Object get(int line, String name)
+        {
+            Object shape = shapes.get(name);
+            if(shape == null) {
+                throw new IllegalStateException("line " + line + ": '" + name + "' was cleared");
+            }
+            return shape;
+        }
+
+        void create(int line, String name, Constructor<?> constructor, Object[] arguments)
+        {
+            shapes.put(name, invoke(line, () -> constructor.newInstance(arguments)));
+        }
+
+        void call(int line, Object shape, Method method, Object[] arguments)
+        {
+            invoke(line, () -> method.invoke(shape, arguments));
+        }
+
+        void animate(int line, Object shape, Method move, int distance, int framesPerPixel)
+        {
+            Object[] step = { distance < 0 ? -1 : 1 };
+            Animation animation = new Animation(Math.abs(distance), framesPerPixel,
+                                                () -> invoke(line, () -> move.invoke(shape, step)));
+            if(!animation.isDone()) {
+                animations.add(animation);
+            }
+        }
+
+        void waitForAnimations()
+        {
+            while(!animations.isEmpty()) {
+                frame();
+            }
+        }
+
+        void frames(int count)
+        {
+            for(int i = 0; i < count; i++) {
+                frame();
+            }
+        }
+
+        void clear()
+        {
+            shapes.clear();
+            animations.clear();
+            canvas.clear();
+        }
+
+        /**
+         * Finish the current frame, then draw one with the next animation steps.
+         */
+        private void frame()
+        {
+            endFrame();
+            if(frameNanos > 0) {
+                nextFrame += frameNanos;
+                long delay = nextFrame - System.nanoTime();
+                if(delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                else {
+                    nextFrame = System.nanoTime();   // too slow: do not try to catch up
+                }
+            }
+            canvas.beginFrame();
+            inFrame = true;
+            for(Iterator<Animation> it = animations.iterator(); it.hasNext(); ) {
+                if(!it.next().tick()) {
+                    it.remove();
+                }
+            }
+        }
+
+        private void endFrame()
+        {
+            if(inFrame) {
+                canvas.endFrame();
+                inFrame = false;
+                frames++;
+            }
+        }
+
+        /**
+         * Finish the last frame.
+         */
+        void finish()
+        {
+            endFrame();
+        }
+
+        private Object invoke(int line, Call call)
+        {
+            try {
+                return call.run();
+            }
+            catch(InvocationTargetException e) {
+                throw new IllegalStateException("line " + line + ": " + e.getCause(), e.getCause());
+            }
+            catch(ReflectiveOperationException e) {
+                throw new IllegalStateException("line " + line + ": " + e, e);
+            }
+        }
+    }
+
+    private interface Call
+    {
+        Object run() throws ReflectiveOperationException;
+    }
+}
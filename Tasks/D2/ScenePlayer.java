@@ -0,0 +1,86 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+
+/**
+ * Plays a scene script (see Scene) on the canvas and reports the frames
+ * per second. Without a display, or with speed 0, the frames are computed
+ * back to back; optionally every n-th frame is saved as PNG. The checksum
+ * of the last image is printed: a replay always gives the same frames, so
+ * it must be the same for every run.
+ *
+ * Usage: java ScenePlayer [script] [speed] [runs] [pngDirectory] [everyNth]
+ * With "-" as script, the script is read from standard input and played
+ * while it is read (once), e.g. for long generated scripts.
+ * With -Dprofile=file.csv the frames are measured (FrameProfiler): one
+ * line per frame is written to the file as the frames are drawn, the
+ * report is printed at the end, and with a window the numbers are shown
+ * on the canvas.
+ */
+public class ScenePlayer
+{
+    public static void main(String[] args) throws IOException
+    {
+        String name = args.length > 0 ? args[0] : "picture.scene";
+        double speed = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        File directory = args.length > 3 ? new File(args[3]) : null;
+        int everyNth = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+        Canvas canvas = Canvas.getCanvas();
+        String profile = System.getProperty("profile");
+        FrameProfiler profiler = null;
+        if(profile != null) {
+            profiler = new FrameProfiler(speed > 0 ? Animator.FRAME_MILLIS / speed : 0);
+            profiler.startCsv(new File(profile));
+            canvas.setProfiler(profiler);
+            canvas.setOverlayVisible(true);
+        }
+        FrameRecorder recorder = null;
+        if(directory != null) {
+            recorder = new FrameRecorder(directory, everyNth);
+            canvas.addFrameListener(recorder);
+        }
+        if(name.equals("-")) {
+            long start = System.nanoTime();
+            long frames = Scene.stream(new InputStreamReader(System.in), speed);
+            report("Stream", frames, System.nanoTime() - start, canvas);
+        }
+        else {
+            Scene scene = Scene.load(new File(name));
+            System.out.println(scene.size() + " commands in " + name);
+            for(int run = 1; run <= runs; run++) {
+                canvas.clear();
+                long start = System.nanoTime();
+                long frames = scene.play(speed);
+                report("Run " + run, frames, System.nanoTime() - start, canvas);
+            }
+        }
+        if(profiler != null) {
+            canvas.setProfiler(null);
+            profiler.stopCsv();
+            System.out.print(profiler.report());
+            System.out.println(profiler.getFrames() + " frames written to " + profile);
+        }
+        if(recorder != null) {
+            if(recorder.getError() != null) {
+                throw recorder.getError();
+            }
+            System.out.println(recorder.getSavedFrames() + " PNG files in " + directory);
+        }
+    }
+
+    private static void report(String label, long frames, long nanos, Canvas canvas)
+    {
+        System.out.printf("%s: %d frames in %.0f ms = %.0f frames/s, image checksum %08x%n",
+                          label, frames, nanos / 1e6, frames / (nanos / 1e9), checksum(canvas.getImage()));
+    }
+
+    private static int checksum(BufferedImage image)
+    {
+        int width = image.getWidth();
+        return Arrays.hashCode(image.getRGB(0, 0, width, image.getHeight(), null, 0, width));
+    }
+}
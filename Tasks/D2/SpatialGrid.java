@@ -0,0 +1,209 @@
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A uniform grid over the plane that finds the items whose bounds
+ * intersect a rectangle without looking at all items. Each item is
+ * entered in every cell its bounds touch; a query only visits the cells
+ * of the query rectangle, so its cost depends on the number of nearby
+ * items, not on the total number.
+ *
+ * Cells are created on demand (any coordinates are allowed). Items that
+ * would cover very many cells (e.g. a background) are kept in a separate
+ * list that every query checks.
+ */
+class SpatialGrid<T>
+{
+    private static final int CELL_SIZE = 64;
+    private static final int MAX_CELLS_PER_ITEM = 256;
+
+    private final HashMap<Long, List<Entry<T>>> cells;
+    private final List<Entry<T>> large;
+    private int size;
+
+    SpatialGrid()
+    {
+        cells = new HashMap<Long, List<Entry<T>>>();
+        large = new ArrayList<Entry<T>>();
+    }
+
+    /**
+     * Add an item with the given bounds. To remove it, the same bounds
+     * must be given again.
+     */
+    void insert(T item, Rectangle bounds)
+    {
+        Entry<T> entry = new Entry<T>(item, bounds);
+        if(isLarge(bounds)) {
+            large.add(entry);
+        }
+        else {
+            for(int cy = cell(bounds.y); cy <= cell(bounds.y + bounds.height - 1); cy++) {
+                for(int cx = cell(bounds.x); cx <= cell(bounds.x + bounds.width - 1); cx++) {
+                    cells.computeIfAbsent(key(cx, cy), k -> new ArrayList<Entry<T>>(4)).add(entry);
+                }
+            }
+        }
+        size++;
+    }
+
+    /**
+     * Remove an item that was inserted with the given bounds.
+     */
+    void remove(T item, Rectangle bounds)
+    {
+        if(isLarge(bounds)) {
+            removeFrom(large, item);
+        }
+        else {
+            for(int cy = cell(bounds.y); cy <= cell(bounds.y + bounds.height - 1); cy++) {
+                for(int cx = cell(bounds.x); cx <= cell(bounds.x + bounds.width - 1); cx++) {
+                    Long key = key(cx, cy);
+                    List<Entry<T>> list = cells.get(key);
+                    if(list != null && removeFrom(list, item) && list.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+        size--;
+    }
+
+    /**
+     * Change the bounds of an item. If it stays in the same cells (a move
+     * by a few pixels) only its entry is updated, without allocating.
+     */
+    void move(T item, Rectangle oldBounds, Rectangle newBounds)
+    {
+        if(!isLarge(oldBounds) && !isLarge(newBounds)
+           && cell(oldBounds.x) == cell(newBounds.x) && cell(oldBounds.y) == cell(newBounds.y)
+           && cell(oldBounds.x + oldBounds.width - 1) == cell(newBounds.x + newBounds.width - 1)
+           && cell(oldBounds.y + oldBounds.height - 1) == cell(newBounds.y + newBounds.height - 1)) {
+            // one entry is shared by all cells of the item: update it in the first one
+            List<Entry<T>> list = cells.get(key(cell(oldBounds.x), cell(oldBounds.y)));
+            for(int i = 0; list != null && i < list.size(); i++) {
+                if(list.get(i).item == item) {
+                    list.get(i).setBounds(newBounds);
+                    return;
+                }
+            }
+        }
+        remove(item, oldBounds);
+        insert(item, newBounds);
+    }
+
+    /**
+     * Add every item whose bounds intersect 'area' to 'result', each once.
+     */
+    void query(Rectangle area, Collection<? super T> result)
+    {
+        if(area.isEmpty()) {
+            return;
+        }
+        int left = area.x;
+        int top = area.y;
+        int right = area.x + area.width;
+        int bottom = area.y + area.height;
+        for(Entry<T> entry : large) {
+            if(entry.intersects(left, top, right, bottom)) {
+                result.add(entry.item);
+            }
+        }
+        int firstX = cell(area.x);
+        int firstY = cell(area.y);
+        int lastX = cell(area.x + area.width - 1);
+        int lastY = cell(area.y + area.height - 1);
+        for(int cy = firstY; cy <= lastY; cy++) {
+            for(int cx = firstX; cx <= lastX; cx++) {
+                List<Entry<T>> list = cells.get(key(cx, cy));
+                if(list == null) {
+                    continue;
+                }
+                for(int i = 0; i < list.size(); i++) {
+                    Entry<T> entry = list.get(i);
+                    // an item spanning several cells is reported only by the cell that
+                    // holds the top left corner of its overlap with the area
+                    if(entry.intersects(left, top, right, bottom)
+                       && cell(Math.max(entry.left, left)) == cx
+                       && cell(Math.max(entry.top, top)) == cy) {
+                        result.add(entry.item);
+                    }
+                }
+            }
+        }
+    }
+
+    void clear()
+    {
+        cells.clear();
+        large.clear();
+        size = 0;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    private static boolean isLarge(Rectangle bounds)
+    {
+        long columns = (long)cell(bounds.x + bounds.width - 1) - cell(bounds.x) + 1;
+        long rows = (long)cell(bounds.y + bounds.height - 1) - cell(bounds.y) + 1;
+        return columns * rows > MAX_CELLS_PER_ITEM;
+    }
+
+    private boolean removeFrom(List<Entry<T>> list, T item)
+    {
+        for(int i = 0; i < list.size(); i++) {
+            if(list.get(i).item == item) {
+                // the order inside a cell does not matter: move the last entry here
+                int last = list.size() - 1;
+                list.set(i, list.get(last));
+                list.remove(last);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int cell(int coordinate)
+    {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    private static long key(int cx, int cy)
+    {
+        return ((long)cx << 32) | (cy & 0xffffffffL);
+    }
+
+    private static class Entry<T>
+    {
+        final T item;
+        int left;     // bounds copied into the entry: no extra object to load
+        int top;
+        int right;    // exclusive
+        int bottom;   // exclusive
+
+        Entry(T item, Rectangle bounds)
+        {
+            this.item = item;
+            setBounds(bounds);
+        }
+
+        void setBounds(Rectangle bounds)
+        {
+            left = bounds.x;
+            top = bounds.y;
+            right = bounds.x + bounds.width;
+            bottom = bounds.y + bounds.height;
+        }
+
+        boolean intersects(int areaLeft, int areaTop, int areaRight, int areaBottom)
+        {
+            return left < areaRight && areaLeft < right && top < areaBottom && areaTop < bottom;
+        }
+    }
+}
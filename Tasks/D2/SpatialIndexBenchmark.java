@@ -0,0 +1,113 @@
+import java.awt.*;
+import java.util.Random;
+
+/**
+ * Hit-tests and region queries on a headless canvas with many shapes,
+ * compared with checking every shape (what a plain list would need).
+ * The shapes are spread over an area much larger than the visible canvas.
+ * The results of both ways are compared for a sample of queries.
+ *
+ * Usage: java SpatialIndexBenchmark [shapes] [worldSize]
+ */
+public class SpatialIndexBenchmark
+{
+    public static void main(String[] args)
+    {
+        System.setProperty("java.awt.headless", "true");
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int world = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+        Random random = new Random(42);
+        Canvas canvas = Canvas.getCanvas();
+        Object[] objects = new Object[count];
+        Shape[] shapes = new Shape[count];
+        String[] colors = { "red", "blue", "green", "yellow", "black" };
+        long start = System.nanoTime();
+        canvas.beginFrame();   // one redraw for all shapes
+        for(int i = 0; i < count; i++) {
+            int x = random.nextInt(world);
+            int y = random.nextInt(world);
+            int size = 5 + random.nextInt(40);
+            shapes[i] = i % 2 == 0 ? new Rectangle(x, y, size, size)
+                                   : new Polygon(new int[] { x, x + size, x - size }, new int[] { y, y + size, y + size }, 3);
+            objects[i] = "shape " + i;
+            canvas.draw(objects[i], colors[i % colors.length], shapes[i]);
+        }
+        canvas.endFrame();
+        System.out.printf("%d shapes drawn in %.0f ms%n", count, (System.nanoTime() - start) / 1e6);
+
+        // hit-tests
+        int[] px = new int[1_000_000];
+        int[] py = new int[px.length];
+        for(int i = 0; i < px.length; i++) {
+            px[i] = random.nextInt(world);
+            py[i] = random.nextInt(world);
+        }
+        int hits = 0;
+        for(int round = 0; round < 3; round++) {
+            hits = 0;
+            start = System.nanoTime();
+            for(int i = 0; i < px.length; i++) {
+                if(canvas.getObjectAt(px[i], py[i]) != null) {
+                    hits++;
+                }
+            }
+        }
+        double indexed = (System.nanoTime() - start) / (double)px.length;
+        int sample = 200;
+        start = System.nanoTime();
+        int mismatches = 0;
+        for(int i = 0; i < sample; i++) {
+            if(linearObjectAt(shapes, objects, px[i], py[i]) != canvas.getObjectAt(px[i], py[i])) {
+                mismatches++;
+            }
+        }
+        double linear = (System.nanoTime() - start) / (double)sample;
+        System.out.printf("getObjectAt: %.0f ns (%d%% hits), checking all shapes: %.0f ns, %d mismatches%n",
+                          indexed, hits * 100L / px.length, linear, mismatches);
+
+        // region queries
+        int regions = 100_000;
+        long found = 0;
+        for(int round = 0; round < 3; round++) {
+            found = 0;
+            start = System.nanoTime();
+            for(int i = 0; i < regions; i++) {
+                found += canvas.getObjectsIn(new Rectangle(px[i], py[i], 100, 100)).size();
+            }
+        }
+        indexed = (System.nanoTime() - start) / (double)regions;
+        start = System.nanoTime();
+        mismatches = 0;
+        for(int i = 0; i < sample; i++) {
+            Rectangle region = new Rectangle(px[i], py[i], 100, 100);
+            if(linearCountIn(shapes, region) != canvas.getObjectsIn(region).size()) {
+                mismatches++;
+            }
+        }
+        linear = (System.nanoTime() - start) / (double)sample;
+        System.out.printf("getObjectsIn 100x100: %.0f ns (%.1f shapes), checking all shapes: %.0f ns, %d mismatches%n",
+                          indexed, found / (double)regions, linear, mismatches);
+    }
+
+    private static Object linearObjectAt(Shape[] shapes, Object[] objects, int x, int y)
+    {
+        for(int i = shapes.length - 1; i >= 0; i--) {   // last drawn is on top
+            if(shapes[i].contains(x + 0.5, y + 0.5)) {
+                return objects[i];
+            }
+        }
+        return null;
+    }
+
+    private static int linearCountIn(Shape[] shapes, Rectangle region)
+    {
+        int count = 0;
+        for(Shape shape : shapes) {
+            if(shape.intersects(region)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,95 @@
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * Redraws a large headless canvas full of shapes with 1, 2, 4, 8 and 16
+ * render threads (tiles, see Canvas.setRenderThreads) and reports the time
+ * per full redraw and the speedup over one thread. The image of every
+ * thread count is compared with the one drawn by a single thread (one
+ * pass, not tiled, so a few pixels on shape edges may differ) and with
+ * the one drawn by two threads (tiled like all higher counts: none may
+ * differ).
+ *
+ * Usage: java TileRenderBenchmark [shapes] [size] [frames]
+ */
+public class TileRenderBenchmark
+{
+    public static void main(String[] args)
+    {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int frames = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        System.setProperty("java.awt.headless", "true");
+        System.setProperty("canvas.width", String.valueOf(size));
+        System.setProperty("canvas.height", String.valueOf(size));
+
+        Canvas canvas = Canvas.getCanvas();
+        Random random = new Random(3);
+        String[] colors = { "red", "blue", "green", "yellow", "black", "magenta" };
+        Object background = new Object();
+        canvas.beginFrame();
+        canvas.draw(background, "white", new Rectangle(0, 0, size, size));
+        for(int i = 0; i < count; i++) {
+            int x = random.nextInt(size);
+            int y = random.nextInt(size);
+            int extent = 4 + random.nextInt(40);
+            Shape shape;
+            switch(i % 3) {
+                case 0: shape = new Ellipse2D.Double(x, y, extent, extent); break;
+                case 1: shape = new Rectangle(x, y, extent, extent); break;
+                default: shape = new Polygon(new int[] { x, x + extent / 2, x - extent / 2 },
+                                             new int[] { y, y + extent, y + extent }, 3); break;
+            }
+            canvas.draw(new Object(), colors[i % colors.length], shape);
+        }
+        canvas.endFrame();
+
+        System.out.printf("%d shapes on %dx%d pixels, %d processors available%n",
+                          count, size, size, Runtime.getRuntime().availableProcessors());
+        BufferedImage expected = null;
+        BufferedImage tiled = null;
+        double single = 0;
+        for(int threads : new int[] { 1, 2, 4, 8, 16 }) {
+            canvas.setRenderThreads(threads);
+            long best = Long.MAX_VALUE;
+            for(int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                for(int frame = 0; frame < frames; frame++) {
+                    // the background is drawn again at the bottom: everything is redrawn
+                    canvas.beginFrame();
+                    canvas.draw(background, "white", new Rectangle(0, 0, size, size));
+                    canvas.sendToBack(background);
+                    canvas.endFrame();
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            BufferedImage image = canvas.getImage();
+            if(expected == null) {
+                expected = image;
+                single = best;
+            }
+            else if(tiled == null) {
+                tiled = image;
+            }
+            System.out.printf("%2d threads: %7.2f ms per redraw, speedup %.2f, %d pixels differ from 1 thread, %d from 2%n",
+                              threads, best / 1e6 / frames, single / best, differences(expected, image),
+                              tiled == null ? 0 : differences(tiled, image));
+        }
+        canvas.setRenderThreads(1);
+    }
+
+    private static int differences(BufferedImage expected, BufferedImage image)
+    {
+        int count = 0;
+        for(int y = 0; y < expected.getHeight(); y++) {
+            for(int x = 0; x < expected.getWidth(); x++) {
+                if(expected.getRGB(x, y) != image.getRGB(x, y)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
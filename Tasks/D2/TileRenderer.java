@@ -0,0 +1,170 @@
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Redraws an area of an image tile by tile, on one or several threads.
+ * The tiles are the squares of a fixed grid, and every tile is drawn
+ * clipped to exactly its square. Java2D fills a shape slightly
+ * differently depending on where the clip cuts it (pixels whose centre
+ * lies on an edge, rounding where a curve is cut), so this is what makes
+ * a pixel come out the same whichever area is redrawn and however many
+ * threads draw: its tile is always drawn the same way.
+ *
+ * With several threads each thread takes the next tile of the area. The
+ * tiles do not overlap, so the threads write different pixels of the
+ * same image and nothing has to be copied back. The painter must only
+ * read shared data while render() runs.
+ */
+class TileRenderer<T>
+{
+    static final int TILE_SIZE = 64;
+
+    /**
+     * Draws one tile; with several threads called by all of them at once.
+     */
+    interface TilePainter<T>
+    {
+        /**
+         * @param graphic  clipped to the tile
+         * @param scratch  an empty list for the painter, one per thread
+         */
+        void paintTile(Graphics2D graphic, Rectangle tile, List<T> scratch);
+    }
+
+    private final TilePainter<T> painter;
+    private final List<T> scratch;     // for the calling thread
+    private final Rectangle tile;      // for the calling thread
+    private BufferedImage image;       // drawn by the worker threads
+    private ExecutorService workers;   // threads - 1: the caller helps; null for one thread
+    private int threads;
+
+    TileRenderer(TilePainter<T> painter)
+    {
+        this.painter = painter;
+        scratch = new ArrayList<T>();
+        tile = new Rectangle();
+        threads = 1;
+    }
+
+    /**
+     * Return the area extended to whole tiles.
+     */
+    static Rectangle align(Rectangle area)
+    {
+        int left = Math.floorDiv(area.x, TILE_SIZE) * TILE_SIZE;
+        int top = Math.floorDiv(area.y, TILE_SIZE) * TILE_SIZE;
+        int right = Math.floorDiv(area.x + area.width + TILE_SIZE - 1, TILE_SIZE) * TILE_SIZE;
+        int bottom = Math.floorDiv(area.y + area.height + TILE_SIZE - 1, TILE_SIZE) * TILE_SIZE;
+        return new Rectangle(left, top, right - left, bottom - top);
+    }
+
+    /**
+     * Draw with the given number of threads; for more than one, 'image' is
+     * the image they draw into.
+     */
+    void setThreads(int threads, BufferedImage image)
+    {
+        if(threads < 1) {
+            throw new IllegalArgumentException("number of render threads must be >= 1");
+        }
+        if(workers != null) {
+            workers.shutdown();
+            workers = null;
+        }
+        this.threads = threads;
+        this.image = image;
+        if(threads > 1) {
+            AtomicInteger number = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                Thread thread = new Thread(runnable, "Canvas tiles " + number.incrementAndGet());
+                thread.setDaemon(true);   // must not keep the program alive
+                return thread;
+            });
+        }
+    }
+
+    int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Draw all tiles of the area (which starts at a tile corner; it may end
+     * at the image edge) and return when they are done. The calling thread
+     * draws with 'graphic'; its clip is reset afterwards.
+     */
+    void render(Rectangle area, Graphics2D graphic)
+    {
+        int columns = (area.width + TILE_SIZE - 1) / TILE_SIZE;
+        int rows = (area.height + TILE_SIZE - 1) / TILE_SIZE;
+        int tiles = columns * rows;
+        if(workers == null || tiles == 1) {
+            for(int i = 0; i < tiles; i++) {
+                paintTile(graphic, area, columns, i, tile, scratch);
+            }
+            graphic.setClip(null);
+            return;
+        }
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> running = new ArrayList<Future<?>>();
+        for(int i = 1; i < Math.min(threads, tiles); i++) {
+            running.add(workers.submit(() -> {
+                Graphics2D workerGraphic = image.createGraphics();
+                workerGraphic.setRenderingHints(graphic.getRenderingHints());
+                Rectangle workerTile = new Rectangle();
+                List<T> workerScratch = new ArrayList<T>();
+                for(int t = next.getAndIncrement(); t < tiles; t = next.getAndIncrement()) {
+                    paintTile(workerGraphic, area, columns, t, workerTile, workerScratch);
+                }
+                workerGraphic.dispose();
+            }));
+        }
+        for(int t = next.getAndIncrement(); t < tiles; t = next.getAndIncrement()) {
+            paintTile(graphic, area, columns, t, tile, scratch);
+        }
+        graphic.setClip(null);
+        // wait for all tiles even when interrupted: afterwards the shapes may change again
+        boolean interrupted = false;
+        Throwable failure = null;
+        for(Future<?> future : running) {
+            while(true) {
+                try {
+                    future.get();
+                    break;
+                }
+                catch(InterruptedException e) {
+                    interrupted = true;
+                }
+                catch(ExecutionException e) {
+                    failure = e.getCause();
+                    break;
+                }
+            }
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if(failure != null) {
+            throw new IllegalStateException("rendering a tile failed", failure);
+        }
+    }
+
+    private void paintTile(Graphics2D tileGraphic, Rectangle area, int columns, int index,
+                           Rectangle bounds, List<T> list)
+    {
+        int x = area.x + (index % columns) * TILE_SIZE;
+        int y = area.y + (index / columns) * TILE_SIZE;
+        bounds.setBounds(x, y, Math.min(TILE_SIZE, area.x + area.width - x),
+                         Math.min(TILE_SIZE, area.y + area.height - y));
+        tileGraphic.setClip(bounds);
+        painter.paintTile(tileGraphic, bounds, list);
+    }
+}
@@ -13,7 +13,8 @@ public class Triangle
     private int width;
     private int xPosition;
     private int yPosition;
-    private String color;
+    private Color colorValue;   // looked up once per color change, not per draw
+    private Shape shape;        // tip at (0, 0); built again only when the size changes
     private boolean isVisible;
 
     /**
@@ -25,7 +26,8 @@ public class Triangle
         width = 70;
         xPosition = 210;
         yPosition = 140;
-        color = "green";
+        colorValue = Colors.get("green");
+        shape = createShape();
         isVisible = false;
     }
 
@@ -84,9 +86,8 @@ public class Triangle
      */
     public void moveHorizontal(int distance)
     {
-        erase();
         xPosition += distance;
-        draw();
+        draw();   // replaces the old image, keeping the shape's geometry
     }
 
     /**
@@ -94,9 +95,8 @@ public class Triangle
      */
     public void moveVertical(int distance)
     {
-        erase();
         yPosition += distance;
-        draw();
+        draw();   // replaces the old image, keeping the shape's geometry
     }
 
     /**
@@ -104,23 +104,20 @@ public class Triangle
      */
     public void slowMoveHorizontal(int distance)
     {
-        int delta;
-
-        if(distance < 0) 
-        {
-            delta = -1;
-            distance = -distance;
-        }
-        else 
-        {
-            delta = 1;
-        }
+        animateHorizontal(distance).waitUntilDone();
+    }
 
-        for(int i = 0; i < distance; i++)
-        {
+    /**
+     * Move the triangle horizontally by 'distance' pixels, one pixel per frame,
+     * without waiting: the returned animation runs alongside others.
+     */
+    public Animation animateHorizontal(int distance)
+    {
+        final int delta = distance < 0 ? -1 : 1;
+        return Animator.getAnimator().animate(Math.abs(distance), () -> {
             xPosition += delta;
             draw();
-        }
+        });
     }
 
     /**
@@ -128,23 +125,20 @@ public class Triangle
      */
     public void slowMoveVertical(int distance)
     {
-        int delta;
-
-        if(distance < 0) 
-        {
-            delta = -1;
-            distance = -distance;
-        }
-        else 
-        {
-            delta = 1;
-        }
+        animateVertical(distance).waitUntilDone();
+    }
 
-        for(int i = 0; i < distance; i++)
-        {
+    /**
+     * Move the triangle vertically by 'distance' pixels, one pixel per frame,
+     * without waiting: the returned animation runs alongside others.
+     */
+    public Animation animateVertical(int distance)
+    {
+        final int delta = distance < 0 ? -1 : 1;
+        return Animator.getAnimator().animate(Math.abs(distance), () -> {
             yPosition += delta;
             draw();
-        }
+        });
     }
 
     /**
@@ -155,16 +149,18 @@ public class Triangle
         erase();
         height = newHeight;
         width = newWidth;
+        shape = createShape();
         draw();
     }
 
     /**
      * Change the color. Valid colors are "red", "yellow", "blue", "green",
-     * "magenta" and "black".
+     * "magenta" and "black", names defined in Colors, and values such as
+     * "#ff8800" or "255,136,0".
      */
     public void changeColor(String newColor)
     {
-        color = newColor;
+        colorValue = Colors.get(newColor);
         draw();
     }
 
@@ -175,13 +171,20 @@ public class Triangle
     {
         if(isVisible) {
             Canvas canvas = Canvas.getCanvas();
-            int[] xpoints = { xPosition, xPosition + (width/2), xPosition - (width/2) };
-            int[] ypoints = { yPosition, yPosition + height, yPosition + height };
-            canvas.draw(this, color, new Polygon(xpoints, ypoints, 3));
-            canvas.wait(10);
+            canvas.draw(this, colorValue, shape, xPosition, yPosition);
         }
     }
 
+    /**
+     * Build the triangle for the current size, with its tip at (0, 0).
+     */
+    private Shape createShape()
+    {
+        int[] xpoints = { 0, width/2, -(width/2) };
+        int[] ypoints = { 0, height, height };
+        return new Polygon(xpoints, ypoints, 3);
+    }
+
     /**
      * Erase the triangle on screen.
      */
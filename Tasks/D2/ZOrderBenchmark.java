@@ -0,0 +1,126 @@
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Animates many shapes on a headless canvas: in every frame each shape
+ * moves by one pixel (which puts it on top), and some shapes are sent to
+ * the back or brought to the front. Reports the time per frame and per
+ * move, including the redraw. Then compares reordering alone: the time of
+ * bringToFront/sendToBack (without the redraw at the end of the frame)
+ * against the same calls on the old ArrayList, for 1,000 to 100,000 shapes.
+ *
+ * Usage: java ZOrderBenchmark [shapes] [frames]
+ */
+public class ZOrderBenchmark
+{
+    public static void main(String[] args)
+    {
+        System.setProperty("java.awt.headless", "true");
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Random random = new Random(1);
+        Canvas canvas = Canvas.getCanvas();
+        Object[] objects = new Object[count];
+        int[] x = new int[count];
+        int[] y = new int[count];
+        String[] colors = { "red", "blue", "green", "yellow", "black", "magenta" };
+        canvas.beginFrame();
+        for(int i = 0; i < count; i++) {
+            objects[i] = new Object();
+            x[i] = random.nextInt(480);
+            y[i] = random.nextInt(280);
+            canvas.draw(objects[i], colors[i % colors.length], new Rectangle(x[i], y[i], 8, 8));
+        }
+        canvas.endFrame();
+
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for(int frame = 0; frame < frames; frame++) {
+            long start = System.nanoTime();
+            canvas.beginFrame();
+            for(int i = 0; i < count; i++) {
+                x[i] += (frame / 50) % 2 == 0 ? 1 : -1;
+                canvas.draw(objects[i], colors[i % colors.length], new Rectangle(x[i], y[i], 8, 8));
+            }
+            for(int i = 0; i < 100; i++) {
+                canvas.sendToBack(objects[random.nextInt(count)]);
+                canvas.bringToFront(objects[random.nextInt(count)]);
+            }
+            canvas.endFrame();
+            long nanos = System.nanoTime() - start;
+            total += nanos;
+            best = Math.min(best, nanos);
+        }
+        System.out.printf("%d shapes, %d frames: %.2f ms per frame (best %.2f ms), %.0f ns per move incl. redraw%n",
+                          count, frames, total / 1e6 / frames, best / 1e6, total / (double)frames / count);
+
+        // reordering alone, against the old ArrayList, for growing numbers of shapes
+        for(int shapes : new int[] { 1_000, 10_000, 100_000 }) {
+            compareReordering(canvas, shapes, random);
+        }
+    }
+
+    /**
+     * Time bringToFront/sendToBack on a canvas with the given number of
+     * shapes, without the redraw at the end of the frame, and the same calls
+     * on an ArrayList in drawing order (remove: linear search and shift,
+     * then add at the end or the front).
+     */
+    private static void compareReordering(Canvas canvas, int count, Random random)
+    {
+        int calls = 10_000;
+        Object[] objects = new Object[count];
+        canvas.clear();
+        canvas.beginFrame();
+        for(int i = 0; i < count; i++) {
+            objects[i] = new Object();
+            canvas.draw(objects[i], "blue", new Rectangle(random.nextInt(480), random.nextInt(280), 8, 8));
+        }
+        canvas.endFrame();
+        int[] picked = new int[calls];
+        for(int i = 0; i < calls; i++) {
+            picked[i] = random.nextInt(count);
+        }
+
+        long canvasBest = Long.MAX_VALUE;
+        for(int round = 0; round < 10; round++) {
+            canvas.beginFrame();
+            long start = System.nanoTime();
+            for(int i = 0; i < calls; i++) {
+                if(i % 2 == 0) {
+                    canvas.bringToFront(objects[picked[i]]);
+                }
+                else {
+                    canvas.sendToBack(objects[picked[i]]);
+                }
+            }
+            canvasBest = Math.min(canvasBest, System.nanoTime() - start);
+            canvas.endFrame();
+        }
+
+        List<Object> list = new ArrayList<Object>();
+        for(Object object : objects) {
+            list.add(object);
+        }
+        long listBest = Long.MAX_VALUE;
+        for(int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for(int i = 0; i < calls; i++) {
+                Object object = objects[picked[i]];
+                list.remove(object);
+                if(i % 2 == 0) {
+                    list.add(object);
+                }
+                else {
+                    list.add(0, object);
+                }
+            }
+            listBest = Math.min(listBest, System.nanoTime() - start);
+        }
+        System.out.printf("%7d shapes: bringToFront/sendToBack %6.0f ns per call, ArrayList remove/add %9.0f ns per call%n",
+                          count, canvasBest / (double)calls, listBest / (double)calls);
+    }
+}